@@ -8,7 +8,6 @@
 public class Assign {
     private int col, row;//The row and column being assigned
     private ConnectFour game;//The game 
-    Slot[][] moves;//2D Array to store the game's moves
 
     /**
      * Constructor for Assign class.
@@ -19,20 +18,9 @@ public class Assign {
      */
     public Assign(ConnectFour game, int col, boolean player) {
         this.game = game; // Sets the game instance variable to game object
-        moves = game.getMoves(); // Initializes the 2D array moves with current game's moves
         this.col = col; // Sets the 'col' variable to the 'col' value
         this.row = calculateRow(col); // Calculate 'row' value based on provided 'col' 
         assignMove(player); // Performs an action that is based on the player parameter
-        addToMoveHistory(); // Updates the game move history
-    }
-
-    /**
-     * addToMoveHistory
-     * This method records the history of moves in the stack, made by the player and computer 
-     */    
-    private void addToMoveHistory() {
-        // Access the game's move history stack and push the current column (move) onto it
-        game.getMoveHistory().push(col);
     }
 
     /**
@@ -42,40 +30,17 @@ public class Assign {
      * @return the row value
      */
     public int calculateRow(int col) {
-
-        // Initialize a boolean flag to track if the column is available
-        Boolean columnAvailable = false;
-
-        // Initialize a count variable to start from the lowest row
-        int count = 5;
-
-        // Use a do-while loop to search for the lowest empty slot in the column
-        do {
-            // Check if the state of the slot at the current row in the column is empty
-            if (moves[col][count].getState().equals(ConnectFour.EMPTYSLOT)) {
-                // Set the columnAvailable flag to true if an empty slot is found
-                columnAvailable = true;
-            } else {
-                // Decrement the count to move to the row above
-                count--;
-            }
-
-        } while (columnAvailable == false);
-
-        // Return the row value of the lowest empty slot in the selected column
-        return count;
+        // The column height tells us straight away where the lowest empty slot is
+        return game.findRow(col);
     }
 
     /**
      * assignMove
-     * This method assigns the move to the game
+     * This method assigns the move to the game, which also records it in the game's move history
      * @param player a Boolean value to determine whether it is a computer/player move
      */
     public void assignMove(boolean player) {
-        if (player == true) // Check if it's a player's move (true means player's move)
-            moves[col][row].setState(ConnectFour.PLAYERMOVE); // Set the slot state to PLAYERMOVE
-        else
-            moves[col][row].setState(ConnectFour.COMPUTERMOVE); // Set the slot state to COMPUTERMOVE
+        game.addMove(col, player); // Drops the player's or computer's disc into the lowest empty slot
     }
 
     /**
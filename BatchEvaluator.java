@@ -0,0 +1,238 @@
+import java.util.Arrays;
+
+/**
+ * BatchEvaluator
+ * This class checks and scores large numbers of positions in one call, for analysing many games at once.
+ *
+ * Positions are kept as two parallel arrays of Bitboard masks (the player's discs and the computer's discs), rather
+ * than as separate ConnectFour objects, so a batch is two contiguous blocks of longs. The work is done a block of
+ * positions at a time in several short passes, each a plain counted loop of shifts and ANDs over the arrays with no
+ * branches or calls. Loops that small are turned into SIMD instructions by the JIT compiler, which a single loop doing
+ * all of the work is too big for. Each long also tests every line on its board at once, one shift per direction.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class BatchEvaluator {
+    public static final byte NONE = 0;          // Nobody has won and the board is not full
+    public static final byte PLAYER_WINS = 1;   // The player has four in a row
+    public static final byte COMPUTER_WINS = 2; // The computer has four in a row
+    public static final byte DRAW = 3;          // The board is full and nobody has won
+
+    private static final int BLOCK = 512;        // Positions per pass, so the working arrays stay in the L1 cache
+    private static final int THREAT_WEIGHT = 16; // The same weights as ThreatEvaluator
+    private static final int CENTER_WEIGHT = 3;
+    private static final long CENTER_MASK = Bitboard.columnMask(Bitboard.WIDTH / 2);
+
+    private long[] playerMasks;   // The player's discs in each position
+    private long[] computerMasks; // The computer's discs in each position
+    private int size;             // The number of positions in the batch
+    private final long[] player = new long[BLOCK];   // The player's discs in the current block
+    private final long[] computer = new long[BLOCK]; // The computer's discs in the current block
+    private final long[] first = new long[BLOCK];    // Working values for the player in the current block
+    private final long[] second = new long[BLOCK];   // Working values for the computer in the current block
+
+    /**
+     * Constructor for BatchEvaluator class.
+     * @param capacity - the number of positions to make room for, the batch grows if more are added
+     */
+    public BatchEvaluator(int capacity) {
+        this(new long[Math.max(capacity, 1)], new long[Math.max(capacity, 1)], 0);
+    }
+
+    /**
+     * Constructor for BatchEvaluator class.
+     * This uses arrays the caller has already filled, without copying them
+     * @param playerMasks - the player's discs in each position
+     * @param computerMasks - the computer's discs in each position
+     * @param size - the number of positions in the arrays
+     */
+    public BatchEvaluator(long[] playerMasks, long[] computerMasks, int size) {
+        if (playerMasks.length < size || computerMasks.length < size) {
+            throw new IllegalArgumentException("The mask arrays hold fewer than " + size + " positions");
+        }
+        this.playerMasks = playerMasks;
+        this.computerMasks = computerMasks;
+        this.size = size;
+    }
+
+    /**
+     * add
+     * @param board - a position to add to the batch
+     */
+    public void add(Bitboard board) {
+        add(board.getPlayerMask(), board.getComputerMask());
+    }
+
+    /**
+     * add
+     * @param playerMask - the player's discs
+     * @param computerMask - the computer's discs
+     */
+    public void add(long playerMask, long computerMask) {
+        if (size == playerMasks.length) {
+            playerMasks = Arrays.copyOf(playerMasks, size * 2);
+            computerMasks = Arrays.copyOf(computerMasks, size * 2);
+        }
+        playerMasks[size] = playerMask;
+        computerMasks[size] = computerMask;
+        size++;
+    }
+
+    /**
+     * clear
+     * This method empties the batch, keeping its arrays for the next one
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * size
+     * @return the number of positions in the batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * checkWins
+     * This method checks every position for four in a row, the batch version of ConnectFour.checkWin.
+     * If both sides have four in a row (which cannot happen in a real game) the position counts as a player win.
+     * @param results - filled with NONE, PLAYER_WINS, COMPUTER_WINS or DRAW for each position
+     */
+    public void checkWins(byte[] results) {
+        for (int from = 0; from < size; from += BLOCK) {
+            int count = load(from);
+            lines(player, count, first);
+            lines(computer, count, second);
+            for (int i = 0; i < count; i++) {
+                long playerWin = nonZero(first[i]);
+                long computerWin = nonZero(second[i]) & ~playerWin;
+                long full = ~nonZero((player[i] | computer[i]) ^ Bitboard.BOARD_MASK) & 1;
+                first[i] = playerWin | computerWin << 1 | (full & ~playerWin & ~computerWin) * DRAW;
+            }
+            for (int i = 0; i < count; i++) {
+                results[from + i] = (byte) first[i];
+            }
+        }
+    }
+
+    /**
+     * countThreats
+     * This method counts each side's winning cells in every position (see Bitboard.winningCells)
+     * @param playerThreats - filled with the number of cells where the player is one disc away from four in a row
+     * @param computerThreats - filled with the same for the computer
+     */
+    public void countThreats(int[] playerThreats, int[] computerThreats) {
+        for (int from = 0; from < size; from += BLOCK) {
+            int count = load(from);
+            winningCells(player, computer, count, first);
+            winningCells(computer, player, count, second);
+            for (int i = 0; i < count; i++) {
+                playerThreats[from + i] = Long.bitCount(first[i]);
+                computerThreats[from + i] = Long.bitCount(second[i]);
+            }
+        }
+    }
+
+    /**
+     * evaluate
+     * This method scores every position like ThreatEvaluator, for the side to move. The player always starts, so the
+     * player is to move whenever both sides have the same number of discs.
+     * @param scores - filled with the score of each position
+     */
+    public void evaluate(int[] scores) {
+        for (int from = 0; from < size; from += BLOCK) {
+            int count = load(from);
+            winningCells(player, computer, count, first);
+            winningCells(computer, player, count, second);
+            for (int i = 0; i < count; i++) {
+                int threats = Long.bitCount(first[i]) - Long.bitCount(second[i]);
+                int center = Long.bitCount(player[i] & CENTER_MASK) - Long.bitCount(computer[i] & CENTER_MASK);
+                int sign = 1 - 2 * (Long.bitCount(player[i]) - Long.bitCount(computer[i])); // -1 if the computer is to move
+                scores[from + i] = sign * (THREAT_WEIGHT * threats + CENTER_WEIGHT * center);
+            }
+        }
+    }
+
+    /**
+     * load
+     * This method copies a block of positions into the working arrays, so that every pass indexes its arrays from 0
+     * (loops over arrays at different offsets are not turned into SIMD instructions)
+     * @param from - the first position of the block
+     * @return the number of positions in the block
+     */
+    private int load(int from) {
+        int count = Math.min(BLOCK, size - from);
+        System.arraycopy(playerMasks, from, player, 0, count);
+        System.arraycopy(computerMasks, from, computer, 0, count);
+        return count;
+    }
+
+    /**
+     * lines
+     * This method finds the four in a rows of a block of positions
+     * @param masks - one side's discs in each position of the block
+     * @param count - the number of positions in the block
+     * @param out - filled with the lowest cell of every four in a row, 0 if there is none
+     */
+    private static void lines(long[] masks, int count, long[] out) {
+        for (int i = 0; i < count; i++) {
+            long pos = masks[i];
+            long h = pos & (pos >>> Bitboard.STRIDE);
+            long d1 = pos & (pos >>> Bitboard.HEIGHT);
+            long d2 = pos & (pos >>> (Bitboard.HEIGHT + 2));
+            long v = pos & (pos >>> 1);
+            out[i] = (h & (h >>> (2 * Bitboard.STRIDE))) | (d1 & (d1 >>> (2 * Bitboard.HEIGHT)))
+                | (d2 & (d2 >>> (2 * (Bitboard.HEIGHT + 2)))) | (v & (v >>> 2));
+        }
+    }
+
+    /**
+     * winningCells
+     * This method does Bitboard.winningCells for a block of positions, one direction per pass
+     * @param own - the discs of the side whose winning cells are wanted, in each position of the block
+     * @param other - the discs of the other side
+     * @param count - the number of positions in the block
+     * @param out - filled with the empty cells that would complete four in a row
+     */
+    private static void winningCells(long[] own, long[] other, int count, long[] out) {
+        for (int i = 0; i < count; i++) {
+            long pos = own[i];
+            out[i] = (pos << 1) & (pos << 2) & (pos << 3); // Vertical, only ever completed from above
+        }
+        for (int i = 0; i < count; i++) {
+            out[i] |= lineGaps(own[i], Bitboard.STRIDE); // Horizontal
+        }
+        for (int i = 0; i < count; i++) {
+            out[i] |= lineGaps(own[i], Bitboard.HEIGHT); // Diagonal, top-left to bottom-right
+        }
+        for (int i = 0; i < count; i++) {
+            out[i] |= lineGaps(own[i], Bitboard.HEIGHT + 2); // Diagonal, bottom-left to top-right
+        }
+        for (int i = 0; i < count; i++) {
+            out[i] &= Bitboard.BOARD_MASK ^ (own[i] | other[i]);
+        }
+    }
+
+    /**
+     * lineGaps
+     * @param pos - one side's discs
+     * @param shift - the shift between neighbouring cells in the direction
+     * @return the cells, empty or not, that would complete three of the side's discs in a row in that direction
+     */
+    private static long lineGaps(long pos, int shift) {
+        long below = (pos << shift) & (pos << (2 * shift));
+        long above = (pos >>> shift) & (pos >>> (2 * shift));
+        return (below & ((pos << (3 * shift)) | (pos >>> shift))) | (above & ((pos << shift) | (pos >>> (3 * shift))));
+    }
+
+    /**
+     * nonZero
+     * @return 1 if the value is not 0, otherwise 0, without a branch
+     */
+    private static long nonZero(long value) {
+        return (value | -value) >>> 63;
+    }
+
+}//End of class BatchEvaluator
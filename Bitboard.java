@@ -0,0 +1,458 @@
+import java.io.Serializable; // Import for the Serializable interface
+
+/**
+ * Bitboard
+ * This class holds the compact state of the standard 7x6 game board. Each side's discs are stored in one long mask and the
+ * number of discs in each column is kept in a byte, so making, unmaking and checking moves only takes a few shifts.
+ *
+ * Bits are laid out column by column from the bottom up. Every column uses HEIGHT + 1 bits, the extra bit on top of
+ * each column is always empty so that shifted lines can never wrap into the next column.
+ *
+ *   .  .  .  .  .  .  .
+ *   5 12 19 26 33 40 47
+ *   4 11 18 25 32 39 46
+ *   3 10 17 24 31 38 45
+ *   2  9 16 23 30 37 44
+ *   1  8 15 22 29 36 43
+ *   0  7 14 21 28 35 42
+ *
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class Bitboard implements GameBoard, Serializable {
+    public static final int WIDTH = 7;  // Number of columns on the board
+    public static final int HEIGHT = 6; // Number of rows on the board
+    public static final int CONNECT = 4; // Number of discs in a row that win the game
+    public static final int STRIDE = HEIGHT + 1; // Bits used by each column, including the empty sentinel bit
+    public static final long BOTTOM_MASK = bottomMask(); // One bit set in the lowest cell of every column
+    public static final long BOARD_MASK = BOTTOM_MASK * ((1L << HEIGHT) - 1); // Every playable cell on the board
+    private static final long COLUMN_BITS = (1L << STRIDE) - 1; // Every bit of the lowest column, sentinel included
+
+    private static final int[] DIRECTION_SHIFTS = {STRIDE, 1, HEIGHT, HEIGHT + 2}; // Bit distance between neighbours
+    private static final String[] DIRECTION_NAMES = {
+        WinResult.HORIZONTAL, WinResult.VERTICAL, WinResult.DIAGONAL_DOWN, WinResult.DIAGONAL_UP
+    };
+
+    private long playerMask;   // Cells occupied by the player's discs
+    private long computerMask; // Cells occupied by the computer's discs
+    private byte[] heights;    // Number of discs in each column
+    private int moveCount;     // Number of discs on the board
+
+    /**
+     * Constructor of the class Bitboard
+     * Creates an empty board
+     */
+    public Bitboard() {
+        heights = new byte[WIDTH]; // Every column starts empty
+    }
+
+    /**
+     * getColumns
+     * @return the number of columns on the board
+     */
+    public int getColumns() {
+        return WIDTH;
+    }
+
+    /**
+     * getRows
+     * @return the number of rows on the board
+     */
+    public int getRows() {
+        return HEIGHT;
+    }
+
+    /**
+     * getConnect
+     * @return the number of discs in a row that win the game
+     */
+    public int getConnect() {
+        return CONNECT;
+    }
+
+    /**
+     * copy
+     * This method creates an independent copy of the board, which can be changed without affecting this one
+     * @return the copy of the board
+     */
+    public Bitboard copy() {
+        Bitboard copy = new Bitboard();
+        copy.playerMask = playerMask;
+        copy.computerMask = computerMask;
+        copy.heights = heights.clone();
+        copy.moveCount = moveCount;
+        return copy;
+    }
+
+    /**
+     * canPlay
+     * This method checks whether a disc can still be dropped into the selected column
+     * @param col - the selected column
+     * @return true if the column is on the board and is not full
+     */
+    public boolean canPlay(int col) {
+        return col >= 0 && col < WIDTH && heights[col] < HEIGHT;
+    }
+
+    /**
+     * play
+     * This method drops a disc into the selected column
+     * @param col - the selected column
+     * @param player - a Boolean value that determines whether it is a player/computer move
+     * @return the row (counted from the top, as used by Slot) where the disc landed
+     */
+    public int play(int col, boolean player) {
+        if (!canPlay(col)) {
+            throw new IllegalArgumentException("Column " + col + " is not available");
+        }
+        long move = 1L << (col * STRIDE + heights[col]); // The lowest empty cell of the column
+        if (player) {
+            playerMask |= move;
+        } else {
+            computerMask |= move;
+        }
+        heights[col]++;
+        moveCount++;
+        return HEIGHT - heights[col];
+    }
+
+    /**
+     * unplay
+     * This method removes the top disc from the selected column
+     * @param col - the selected column
+     * @return the row (counted from the top) that has been emptied, or -1 if the column was already empty
+     */
+    public int unplay(int col) {
+        if (col < 0 || col >= WIDTH || heights[col] == 0) {
+            return -1; // Nothing to remove
+        }
+        int row = HEIGHT - heights[col];
+        heights[col]--;
+        moveCount--;
+        long move = ~(1L << (col * STRIDE + heights[col]));
+        playerMask &= move;
+        computerMask &= move;
+        return row;
+    }
+
+    /**
+     * isWinningMove
+     * This method checks whether dropping a disc in the selected column would connect four, without changing the board
+     * @param col - the selected column
+     * @param player - a Boolean value that determines whether it is a player/computer move
+     * @return true if the move would win the game
+     */
+    public boolean isWinningMove(int col, boolean player) {
+        if (!canPlay(col)) {
+            return false;
+        }
+        long move = 1L << (col * STRIDE + heights[col]);
+        return isWin((player ? playerMask : computerMask) | move);
+    }
+
+    /**
+     * hasWon
+     * This method checks whether the player or the computer has four in a row anywhere on the board
+     * @param player - true to check the player's discs, false to check the computer's
+     * @return true if that side has connected four
+     */
+    public boolean hasWon(boolean player) {
+        return isWin(player ? playerMask : computerMask);
+    }
+
+    /**
+     * isWin
+     * This method checks a disc mask for four in a row, using one shift per direction and step
+     * @param pos - the mask of one side's discs
+     * @return true if the mask contains four connected discs
+     */
+    public static boolean isWin(long pos) {
+        long m = pos & (pos >> STRIDE); // Horizontal
+        if ((m & (m >> (2 * STRIDE))) != 0) {
+            return true;
+        }
+        m = pos & (pos >> HEIGHT); // Diagonal, top-left to bottom-right
+        if ((m & (m >> (2 * HEIGHT))) != 0) {
+            return true;
+        }
+        m = pos & (pos >> (HEIGHT + 2)); // Diagonal, bottom-left to top-right
+        if ((m & (m >> (2 * (HEIGHT + 2)))) != 0) {
+            return true;
+        }
+        m = pos & (pos >> 1); // Vertical
+        return (m & (m >> 2)) != 0;
+    }
+
+    /**
+     * checkWinAt
+     * This method checks only the lines through the top disc of a column, which is all that needs checking after a
+     * disc has been dropped there. Each direction is followed outwards with shifts until the owner's discs run out.
+     * @param col - the column the last disc was dropped into
+     * @return the winner and winning line, a draw if the board is full, or WinResult.NONE
+     */
+    public WinResult checkWinAt(int col) {
+        if (col >= 0 && col < WIDTH && heights[col] > 0) {
+            long cell = 1L << (col * STRIDE + heights[col] - 1);
+            boolean player = (playerMask & cell) != 0;
+            long own = player ? playerMask : computerMask;
+            for (int i = 0; i < DIRECTION_SHIFTS.length; i++) {
+                int shift = DIRECTION_SHIFTS[i];
+                long line = cell;
+                for (long b = cell << shift; (b & own) != 0; b <<= shift) {
+                    line |= b;
+                }
+                for (long b = cell >>> shift; (b & own) != 0; b >>>= shift) {
+                    line |= b;
+                }
+                if (Long.bitCount(line) >= CONNECT) {
+                    return new WinResult(player ? ConnectFour.PLAYERMOVE : ConnectFour.COMPUTERMOVE,
+                        DIRECTION_NAMES[i], line, false);
+                }
+            }
+        }
+        return isFull() ? WinResult.DRAW : WinResult.NONE;
+    }
+
+    /**
+     * findWin
+     * This method checks the whole board for four in a row with shifts, for when the last move is not known
+     * @return the winner and winning line, a draw if the board is full, or WinResult.NONE
+     */
+    public WinResult findWin() {
+        for (int side = 0; side < 2; side++) {
+            long pos = side == 0 ? playerMask : computerMask;
+            for (int i = 0; i < DIRECTION_SHIFTS.length; i++) {
+                int shift = DIRECTION_SHIFTS[i];
+                long m = pos & (pos >>> shift);
+                m &= m >>> (2 * shift); // The lowest cell of every four in a row in this direction
+                if (m != 0) {
+                    long start = Long.lowestOneBit(m);
+                    long line = start | (start << shift) | (start << (2 * shift)) | (start << (3 * shift));
+                    return new WinResult(side == 0 ? ConnectFour.PLAYERMOVE : ConnectFour.COMPUTERMOVE,
+                        DIRECTION_NAMES[i], line, false);
+                }
+            }
+        }
+        return isFull() ? WinResult.DRAW : WinResult.NONE;
+    }
+
+    /**
+     * winningCells
+     * This method finds every empty cell where one more disc would complete four in a row for the given side
+     * @param pos - the mask of one side's discs
+     * @param mask - the mask of every occupied cell
+     * @return the mask of empty cells that would win
+     */
+    public static long winningCells(long pos, long mask) {
+        long r = (pos << 1) & (pos << 2) & (pos << 3); // Vertical, only ever completed from above
+
+        long p = (pos << STRIDE) & (pos << (2 * STRIDE)); // Horizontal
+        r |= p & (pos << (3 * STRIDE));
+        r |= p & (pos >> STRIDE);
+        p = (pos >> STRIDE) & (pos >> (2 * STRIDE));
+        r |= p & (pos << STRIDE);
+        r |= p & (pos >> (3 * STRIDE));
+
+        p = (pos << HEIGHT) & (pos << (2 * HEIGHT)); // Diagonal, top-left to bottom-right
+        r |= p & (pos << (3 * HEIGHT));
+        r |= p & (pos >> HEIGHT);
+        p = (pos >> HEIGHT) & (pos >> (2 * HEIGHT));
+        r |= p & (pos << HEIGHT);
+        r |= p & (pos >> (3 * HEIGHT));
+
+        p = (pos << (HEIGHT + 2)) & (pos << (2 * (HEIGHT + 2))); // Diagonal, bottom-left to top-right
+        r |= p & (pos << (3 * (HEIGHT + 2)));
+        r |= p & (pos >> (HEIGHT + 2));
+        p = (pos >> (HEIGHT + 2)) & (pos >> (2 * (HEIGHT + 2)));
+        r |= p & (pos << (HEIGHT + 2));
+        r |= p & (pos >> (3 * (HEIGHT + 2)));
+
+        return r & (BOARD_MASK ^ mask);
+    }
+
+    /**
+     * columnMask
+     * @param col - the selected column
+     * @return a mask with every playable cell of the column set
+     */
+    public static long columnMask(int col) {
+        return ((1L << HEIGHT) - 1) << (col * STRIDE);
+    }
+
+    /**
+     * isFull
+     * @return true if every cell on the board is occupied
+     */
+    public boolean isFull() {
+        return moveCount == WIDTH * HEIGHT;
+    }
+
+    /**
+     * getState
+     * This method provides the state of a single cell, using the same row numbering as Slot (row 0 is the top row)
+     * @param col - the column of the cell
+     * @param row - the row of the cell
+     * @return PLAYERMOVE, COMPUTERMOVE or EMPTYSLOT
+     */
+    public String getState(int col, int row) {
+        long cell = cellBit(col, row);
+        if ((playerMask & cell) != 0) {
+            return ConnectFour.PLAYERMOVE;
+        } else if ((computerMask & cell) != 0) {
+            return ConnectFour.COMPUTERMOVE;
+        }
+        return ConnectFour.EMPTYSLOT;
+    }
+
+    /**
+     * setState
+     * This method writes a state directly into a single cell and recalculates that column's height.
+     * It is only kept for callers that edit the board through Slot, moves should be made with play/unplay.
+     * @param col - the column of the cell
+     * @param row - the row of the cell
+     * @param state - PLAYERMOVE, COMPUTERMOVE or EMPTYSLOT
+     */
+    public void setState(int col, int row, String state) {
+        long cell = cellBit(col, row);
+        int before = Long.bitCount((playerMask | computerMask) & cell);
+        playerMask &= ~cell;
+        computerMask &= ~cell;
+        if (state.equals(ConnectFour.PLAYERMOVE)) {
+            playerMask |= cell;
+        } else if (state.equals(ConnectFour.COMPUTERMOVE)) {
+            computerMask |= cell;
+        }
+        moveCount += Long.bitCount((playerMask | computerMask) & cell) - before;
+
+        // The height is the number of occupied cells from the bottom of the column up to the first gap
+        long column = ((playerMask | computerMask) >>> (col * STRIDE)) & ((1L << HEIGHT) - 1);
+        heights[col] = (byte) Long.numberOfTrailingZeros(~column);
+    }
+
+    /**
+     * getHeight
+     * @param col - the selected column
+     * @return the number of discs in the column
+     */
+    public int getHeight(int col) {
+        return heights[col];
+    }
+
+    /**
+     * getMoveCount
+     * @return the number of discs on the board
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * getPlayerMask
+     * @return the mask of the player's discs
+     */
+    public long getPlayerMask() {
+        return playerMask;
+    }
+
+    /**
+     * getComputerMask
+     * @return the mask of the computer's discs
+     */
+    public long getComputerMask() {
+        return computerMask;
+    }
+
+    /**
+     * key
+     * This method provides a unique key for the position. The occupied mask plus the bottom row marks the height
+     * of every column, and adding the player's discs on top of that tells the two sides apart.
+     * @return the position key
+     */
+    public long key() {
+        return playerMask + (playerMask | computerMask) + BOTTOM_MASK;
+    }
+
+    /**
+     * canonicalKey
+     * A position and its mirror image (left and right swapped) play out the same way, so they share this key
+     * @return the smaller of the position's key and its mirror image's key
+     */
+    public long canonicalKey() {
+        return canonicalKey(key());
+    }
+
+    /**
+     * canonicalKey
+     * @param key - a position key
+     * @return the smaller of the key and its mirror image's key
+     */
+    public static long canonicalKey(long key) {
+        return Math.min(key, mirror(key));
+    }
+
+    /**
+     * mirror
+     * This method swaps the columns left to right. Every column keeps its own STRIDE bits, so this mirrors disc masks
+     * and position keys alike, on any width of board.
+     * @param bits - a mask or position key
+     * @return the same bits with column col moved to column WIDTH - 1 - col
+     */
+    public static long mirror(long bits) {
+        long mirrored = bits & (COLUMN_BITS << (WIDTH / 2 * STRIDE)); // The centre column stays put (odd widths)
+        for (int col = 0; col < WIDTH / 2; col++) { // Swap each column with its partner on the other side
+            int distance = (WIDTH - 1 - 2 * col) * STRIDE;
+            long left = COLUMN_BITS << (col * STRIDE);
+            mirrored |= (bits & left) << distance | (bits >>> distance) & left;
+        }
+        return mirrored;
+    }
+
+    /**
+     * mirrorColumn
+     * This method maps a move between a position and its mirror image, it is its own inverse
+     * @param col - a column, or -1 for no move
+     * @return the column in the mirror image, or -1 for no move
+     */
+    public static int mirrorColumn(int col) {
+        return col < 0 ? col : WIDTH - 1 - col;
+    }
+
+    /**
+     * maskOf
+     * This method recovers the occupied cells from a position key. In each column the highest set bit of the key sits
+     * just above the top disc, so everything below it is occupied.
+     * @param key - a position key
+     * @return the mask of every occupied cell
+     */
+    public static long maskOf(long key) {
+        long mask = 0;
+        for (int col = 0; col < WIDTH; col++) {
+            long column = (key >>> (col * STRIDE)) & COLUMN_BITS;
+            mask |= (Long.highestOneBit(column) - 1) << (col * STRIDE);
+        }
+        return mask;
+    }
+
+    /**
+     * cellBit
+     * This method converts a Slot position (row 0 is the top row) into its bit on the board
+     * @param col - the column of the cell
+     * @param row - the row of the cell
+     * @return the mask with only that cell set
+     */
+    public static long cellBit(int col, int row) {
+        return 1L << (col * STRIDE + HEIGHT - 1 - row);
+    }
+
+    /**
+     * bottomMask
+     * @return a mask with the lowest cell of every column set
+     */
+    private static long bottomMask() {
+        long mask = 0;
+        for (int col = 0; col < WIDTH; col++) {
+            mask |= 1L << (col * STRIDE);
+        }
+        return mask;
+    }
+}//End of class Bitboard
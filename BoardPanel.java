@@ -0,0 +1,353 @@
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+
+/**
+ * BoardPanel
+ * This class draws the game's board as one component. The parts that never change, the checkered border and the
+ * frame with its empty cells, are drawn once into an image at the screen's resolution and copied on every repaint.
+ * When the board changes only the cells that changed are repainted, and a new disc can drop down its column, moved by
+ * a Swing Timer about 60 times a second. Clicking a column tells the ActionListeners, with the column as the command.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class BoardPanel extends JPanel {
+    private static final int BORDER = 10;      // Width of the checkered border
+    private static final int SQUARE = 5;       // Size of the border's checks
+    private static final int FRAME_MS = 16;    // Time between frames of the drop, about 60 a second
+    private static final double DROP_CELLS_PER_S2 = 200; // How fast a dropping disc speeds up, in cells/s/s
+    private static final Color FRAME = Color.BLACK;
+    private static final Color EMPTY = Color.BLUE;
+    private static final Color PLAYER = Color.RED;
+    private static final Color COMPUTER = Color.YELLOW;
+    private static final byte NONE = 0;        // Cell states
+    private static final byte PLAYER_DISC = 1;
+    private static final byte COMPUTER_DISC = 2;
+
+    private final int columns;
+    private final int rows;
+    private final byte[][] cells;       // The discs on the board, [col][row] with row 0 at the top
+    private final boolean[][] falling;  // Discs still to land, which are drawn by the drop instead
+    private final ArrayDeque<int[]> drops = new ArrayDeque<>(); // The discs to drop, {col, row}, first one dropping
+    private final Timer timer = new Timer(FRAME_MS, e -> step()); // Moves the dropping disc
+    private long dropStart;             // When the first disc in drops started to fall, from System.nanoTime
+    private double dropY;               // How far the dropping disc has fallen, in cells from above the top row
+    private BufferedImage background;   // The border and frame, at the size and scale they were last drawn
+    private double backgroundScale;     // The screen scale the background was drawn at
+
+    /**
+     * Constructor for BoardPanel class.
+     * Creates an empty board
+     * @param columns - the number of columns
+     * @param rows - the number of rows
+     * @param cellSize - the preferred size of a cell in pixels
+     */
+    public BoardPanel(int columns, int rows, int cellSize) {
+        this.columns = columns;
+        this.rows = rows;
+        cells = new byte[columns][rows];
+        falling = new boolean[columns][rows];
+        setOpaque(true);
+        setPreferredSize(new Dimension(columns * cellSize + 2 * BORDER, rows * cellSize + 2 * BORDER));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int col = columnAt(e.getX());
+                if (col >= 0) {
+                    ActionEvent event = new ActionEvent(BoardPanel.this, ActionEvent.ACTION_PERFORMED,
+                        Integer.toString(col));
+                    for (ActionListener listener : listenerList.getListeners(ActionListener.class)) {
+                        listener.actionPerformed(event);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * addActionListener
+     * @param listener - told the column, as the action command, when a column is clicked
+     */
+    public void addActionListener(ActionListener listener) {
+        listenerList.add(ActionListener.class, listener);
+    }
+
+    /**
+     * getColumns
+     * @return the number of columns on the board
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * getRows
+     * @return the number of rows on the board
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * showBoard
+     * This method shows the discs on a board of the same size straight away, e.g. a new or loaded game, repainting
+     * only the cells that are different
+     * @param board - the board to show
+     */
+    public void showBoard(GameBoard board) {
+        stopDrops();
+        for (int col = 0; col < columns; col++) {
+            for (int row = 0; row < rows; row++) {
+                String state = board.getState(col, row);
+                setCell(col, row, ConnectFour.PLAYERMOVE.equals(state) ? PLAYER_DISC
+                    : ConnectFour.COMPUTERMOVE.equals(state) ? COMPUTER_DISC : NONE);
+            }
+        }
+    }
+
+    /**
+     * placeDisc
+     * This method shows a new disc, repainting only its cell
+     * @param col - the column of the disc
+     * @param row - the row of the disc, counted from the top
+     * @param player - true for the player's disc, false for the computer's
+     * @param drop - true to drop the disc down its column, after any discs already falling
+     */
+    public void placeDisc(int col, int row, boolean player, boolean drop) {
+        if (!drop) {
+            stopDrops(); // Land anything falling so the board is shown as it is
+        }
+        setCell(col, row, player ? PLAYER_DISC : COMPUTER_DISC);
+        if (drop) {
+            drop(col, row);
+        }
+    }
+
+    /**
+     * removeDisc
+     * This method takes a disc off the board, repainting only its cell
+     * @param col - the column of the disc
+     * @param row - the row of the disc, counted from the top
+     */
+    public void removeDisc(int col, int row) {
+        stopDrops();
+        setCell(col, row, NONE);
+    }
+
+    /**
+     * setCell
+     * @param col - the column of the cell
+     * @param row - the row of the cell
+     * @param cell - what the cell now holds, the cell is repainted if that has changed
+     */
+    private void setCell(int col, int row, byte cell) {
+        if (cells[col][row] != cell) {
+            cells[col][row] = cell;
+            repaintCell(col, row);
+        }
+    }
+
+    /**
+     * drop
+     * This method queues a disc to fall into its cell after any discs already falling
+     * @param col - the column of the disc
+     * @param row - the row the disc lands in
+     */
+    private void drop(int col, int row) {
+        falling[col][row] = true;
+        repaintCell(col, row); // Hide it until it falls
+        drops.addLast(new int[] {col, row});
+        if (!timer.isRunning()) {
+            dropStart = System.nanoTime();
+            dropY = 0;
+            timer.start();
+        }
+    }
+
+    /**
+     * stopDrops
+     * This method lands every falling disc straight away
+     */
+    private void stopDrops() {
+        timer.stop();
+        for (int[] disc : drops) {
+            falling[disc[0]][disc[1]] = false;
+            repaintColumn(disc[0]);
+        }
+        drops.clear();
+    }
+
+    /**
+     * step
+     * This method moves the dropping disc on by the time since it started to fall, so it falls at the same speed
+     * however often the timer fires, and repaints only the part of the column it has moved through
+     */
+    private void step() {
+        int[] disc = drops.peekFirst();
+        if (disc == null) {
+            timer.stop();
+            return;
+        }
+        double seconds = (System.nanoTime() - dropStart) / 1e9;
+        double target = disc[1] + 1;  // Rows fallen from above the top row to land
+        double lastY = dropY;
+        dropY = Math.min(target, DROP_CELLS_PER_S2 * seconds * seconds / 2);
+        Rectangle board = boardBounds();
+        int cell = cellSize(board);
+        int top = board.y + (int) Math.floor((lastY - 1) * cell);
+        int bottom = board.y + (int) Math.ceil(dropY * cell);
+        repaint(board.x + disc[0] * cell, top, cell, bottom - top); // Where the disc was and where it is now
+        if (dropY >= target) { // Landed, start the next disc from the top
+            falling[disc[0]][disc[1]] = false;
+            drops.removeFirst();
+            dropStart = System.nanoTime();
+            dropY = 0;
+            if (drops.isEmpty()) {
+                timer.stop();
+            }
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        double scale = g2.getTransform().getScaleX(); // Above 1 on HiDPI screens
+        if (background == null || background.getWidth() != (int) Math.ceil(getWidth() * scale)
+                || background.getHeight() != (int) Math.ceil(getHeight() * scale) || backgroundScale != scale) {
+            background = drawBackground(scale);
+            backgroundScale = scale;
+        }
+        g2.drawImage(background, 0, 0, getWidth(), getHeight(), null);
+
+        Rectangle board = boardBounds();
+        int cell = cellSize(board);
+        Rectangle clip = g2.getClipBounds();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        int inset = Math.max(1, cell / 8);
+        for (int col = 0; col < columns; col++) {
+            int x = board.x + col * cell;
+            if (clip != null && (x + cell < clip.x || x > clip.x + clip.width)) {
+                continue; // Only the columns being repainted
+            }
+            for (int row = 0; row < rows; row++) {
+                if (cells[col][row] != NONE && !falling[col][row]) {
+                    g2.setColor(cells[col][row] == PLAYER_DISC ? PLAYER : COMPUTER);
+                    g2.fillOval(x + inset, board.y + row * cell + inset, cell - 2 * inset, cell - 2 * inset);
+                }
+            }
+        }
+
+        int[] disc = drops.peekFirst();
+        if (disc != null && timer.isRunning()) { // The dropping disc, over the frame it is falling past
+            g2.setColor(cells[disc[0]][disc[1]] == PLAYER_DISC ? PLAYER : COMPUTER);
+            int y = board.y + (int) Math.round((dropY - 1) * cell);
+            g2.fillOval(board.x + disc[0] * cell + inset, y + inset, cell - 2 * inset, cell - 2 * inset);
+        }
+    }
+
+    /**
+     * drawBackground
+     * This method draws the parts of the board that never change, at the screen's scale so they stay sharp
+     * @param scale - the screen scale
+     * @return the image of the border and the frame with its empty cells
+     */
+    private BufferedImage drawBackground(double scale) {
+        BufferedImage image = new BufferedImage(Math.max(1, (int) Math.ceil(getWidth() * scale)),
+            Math.max(1, (int) Math.ceil(getHeight() * scale)), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.transform(AffineTransform.getScaleInstance(scale, scale));
+
+        // The checkered border, red and yellow squares round the edge
+        Color[] squareColors = {Color.RED, Color.YELLOW};
+        for (int row = 0; row < getHeight(); row += SQUARE) {
+            for (int col = 0; col < getWidth(); col += SQUARE) {
+                g.setColor(squareColors[(row / SQUARE + col / SQUARE) % 2]);
+                g.fillRect(col, row, SQUARE, SQUARE);
+            }
+        }
+
+        // The frame, with an empty hole in every cell
+        g.setColor(FRAME);
+        g.fillRect(BORDER, BORDER, getWidth() - 2 * BORDER, getHeight() - 2 * BORDER);
+        Rectangle board = boardBounds();
+        int cell = cellSize(board);
+        int inset = Math.max(1, cell / 8);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(EMPTY);
+        for (int col = 0; col < columns; col++) {
+            for (int row = 0; row < rows; row++) {
+                g.fillRect(board.x + col * cell + inset / 2, board.y + row * cell + inset / 2, cell - inset,
+                    cell - inset);
+            }
+        }
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * repaintCell
+     * @param col - the column of the cell
+     * @param row - the row of the cell
+     */
+    private void repaintCell(int col, int row) {
+        Rectangle board = boardBounds();
+        int cell = cellSize(board);
+        repaint(board.x + col * cell, board.y + row * cell, cell, cell);
+    }
+
+    /**
+     * repaintColumn
+     * @param col - the column to repaint, from above the top row for a disc that was dropping
+     */
+    private void repaintColumn(int col) {
+        Rectangle board = boardBounds();
+        int cell = cellSize(board);
+        repaint(board.x + col * cell, 0, cell, getHeight());
+    }
+
+    /**
+     * columnAt
+     * @param x - a position across the panel
+     * @return the column at that position, or -1 if it is outside the board
+     */
+    private int columnAt(int x) {
+        Rectangle board = boardBounds();
+        if (x < board.x || x >= board.x + board.width) {
+            return -1;
+        }
+        return Math.min(columns - 1, (x - board.x) / cellSize(board));
+    }
+
+    /**
+     * boardBounds
+     * @return the area the cells take up, square cells as large as fit inside the border, centred
+     */
+    private Rectangle boardBounds() {
+        int cell = Math.max(1, Math.min((getWidth() - 2 * BORDER) / columns, (getHeight() - 2 * BORDER) / rows));
+        int width = cell * columns;
+        int height = cell * rows;
+        return new Rectangle((getWidth() - width) / 2, (getHeight() - height) / 2, width, height);
+    }
+
+    /**
+     * cellSize
+     * @param board - the area the cells take up
+     * @return the size of a cell in pixels
+     */
+    private int cellSize(Rectangle board) {
+        return board.width / columns;
+    }
+
+}//End of class BoardPanel
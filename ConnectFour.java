@@ -1,11 +1,13 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Stack;
-import java.util.Random;
 import java.io.Serializable;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
-import java.io.FileInputStream;
 import java.io.ObjectInputStream;
+import java.io.ObjectStreamField;
 
 /**
  * ConnectFour 
@@ -14,19 +16,48 @@ import java.io.ObjectInputStream;
  */
  
 public class ConnectFour implements Serializable { // Serializable implemented to enable the user to save/load game states
-    private Slot[][] moves;// 2D array of the moves of the game
+    private static final long serialVersionUID = -2145878897598245805L; // Kept from the original class so old saves load
+    // Serialized in the original form, a grid of slots and the move history, so saves from older versions still load
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("currentPlayer", boolean.class), // Only kept so the earliest saves have the same layout
+        new ObjectStreamField("moves", Slot[][].class),
+        new ObjectStreamField("moveHistory", Stack.class)
+    };
+
+    private transient GameBoard board;// Compact board holding the moves of the game, a Bitboard for the standard 7x6 game
+    private transient Slot[][] moves;// 2D array of slot views onto the board, created when first asked for
     public static final String EMPTYSLOT = "-"; //Blank slot game state
     public static final String PLAYERMOVE = "x";//Player slot game state
     public static final String COMPUTERMOVE = "o";// computer slot game state
-    private Stack<Integer> moveHistory; // Stack has been implemented to keep history of player and computer moves
+    private transient MoveHistory history; // The moves of the game in order, kept to undo, redo and replay them
+    private transient Engine engine; // Search engine that chooses the computer's moves
+    private transient OpeningBook openingBook; // Precomputed opening moves, null to use the shared default book
+    private transient EndgameDatabase endgameDatabase; // Solved endgame positions, null to use the shared default one
+    private transient MoveJournal journal; // Records every change to the game on disk as it happens, null if not used
+    private transient List<GameListener> listeners; // Told about changes, null when nobody listens, so no events
+    private transient List<GameEvent> pendingEvents; // Changes not yet passed to the listeners, null if there are none
+    private transient int batchDepth; // The number of beginBatch calls not yet ended
+    private transient Ponderer ponderer; // Searches replies on the player's time, null if pondering is off
 
     /**
      * Constructor of the class ConnectFour
      * Initialises the slots of the game ready to play
      */
     public ConnectFour() {
-        createGame();           // Calls the createGame() method to initialize the game board.
-        moveHistory = new Stack<>();  // Creates a new stack to track move history.
+        this(Bitboard.WIDTH, Bitboard.HEIGHT, Bitboard.CONNECT); // The standard 7x6 game with four in a row
+    }
+
+    /**
+     * Constructor of the class ConnectFour
+     * Initialises the slots of a game on a board of any size, e.g. 19x19 with five in a row.
+     * The search engine and opening book only play the standard game, on other boards the computer uses GridEngine.
+     * @param columns - the number of columns, 1 to GridBoard.MAX_SIZE
+     * @param rows - the number of rows, 1 to GridBoard.MAX_SIZE
+     * @param connect - the number of discs in a row that win the game
+     */
+    public ConnectFour(int columns, int rows, int connect) {
+        board = GameBoard.create(columns, rows, connect); // Checks the size before the game is set up
+        createGame();           // Calls the createGame() method to initialize the game board and move history.
     }
 
     /**
@@ -34,16 +65,14 @@ public class ConnectFour implements Serializable { // Serializable implemented t
      * This method creates a new set of blank moves in preparation to play the game.
      */
     public void createGame() {
-        // Create a 2D array of Slot objects with dimensions 7x6 to represent the game board.
-        moves = new Slot[7][6];
-
-        // Nested loops to initialize each Slot object in the array with their respective row and column indices.
-        for (int c = 0; c < 6; c++) { // Loop through columns (0 to 5).
-            for (int r = 0; r < 7; r++) { // Loop through rows (0 to 6).
-                // Create a new Slot object and assign it to the corresponding position in the array.
-                moves[r][c] = new Slot(r, c);
-            }
+        board = GameBoard.create(getColumns(), getRows(), getConnect()); // Create an empty board of the same size.
+        moves = null;                 // Slot views are recreated for the new board when next needed.
+        history = new MoveHistory(getColumns() * getRows()); // Creates a new history with room for every move.
+        if (journal != null) {
+            journal.clear();          // Record the cleared board in the journal.
         }
+        fireEvent(GameEvent.GAME_RESET, -1, -1, false); // Tell the listeners the board is empty.
+        ponder();                     // Think about the player's first move, if pondering is on.
     }
 
     /**
@@ -52,61 +81,321 @@ public class ConnectFour implements Serializable { // Serializable implemented t
      * @return the moves in the game currently
      */
     public Slot[][] getMoves() {
+        if (moves == null) {
+            // Create a 2D array of Slot views the size of the board, each one reading its state from the board.
+            moves = new Slot[getColumns()][getRows()];
+            for (int col = 0; col < getColumns(); col++) {
+                for (int row = 0; row < getRows(); row++) {
+                    moves[col][row] = new Slot(board, col, row);
+                }
+            }
+        }
         return moves; // Returns the 2D array representing the current state of moves in the game
     }
 
+    /**
+     * getBoard
+     * This method returns the board holding the current moves in the game
+     * @return the game board
+     */
+    public GameBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * getBitboard
+     * This method returns the board for the search engine and opening book, which only play the standard game
+     * @return the game board, or null if the game is not on the standard 7x6 board with four in a row
+     */
+    public Bitboard getBitboard() {
+        return board instanceof Bitboard ? (Bitboard) board : null;
+    }
+
+    /**
+     * getColumns
+     * @return the number of columns on the board
+     */
+    public int getColumns() {
+        return board.getColumns();
+    }
+
+    /**
+     * getRows
+     * @return the number of rows on the board
+     */
+    public int getRows() {
+        return board.getRows();
+    }
+
+    /**
+     * getConnect
+     * @return the number of discs in a row that win the game
+     */
+    public int getConnect() {
+        return board.getConnect();
+    }
+
     /**
      * getMoveHistory
-     * This method returns the stack which stores the move history in the game
+     * This method returns a copy of the move history in the game, the columns played with the first move at the bottom
+     * @return a new stack of the columns played, see getHistory for the history itself
      */
     public Stack<Integer> getMoveHistory() {
-        return moveHistory; // Returns the stack containing the move history
+        return history.toStack(); // Changing the copy does not change the game
+    }
+
+    /**
+     * getHistory
+     * This method returns the history of the moves in the game, which can be read without copying it
+     * @return the game's move history, to be changed only through the game's methods
+     */
+    public MoveHistory getHistory() {
+        return history;
     }
 
     /**
      * addMove
-     * This method adds a move to the game
+     * This method adds a move to the game, dropping any moves that were undone and could have been redone
      * @param col - The column that the player/computer has selected
      * @param player - A Boolean value denoting whether the move is made by the player or the computer
+     * @throws IllegalArgumentException if the column is full or not on the board
      */
     public void addMove(int col, boolean player) {
-        // Create an instance of the Assign class, which handles move assignment
-        Assign move = new Assign(this, col, player);
+        int movesBefore = board.getMoveCount();
+        replayMove(col, player);
+        if (movesBefore == 0) { // Count games starting and ending in the metrics
+            EngineMetrics.getDefault().recordGameStarted();
+        }
+        WinResult result = board.checkWinAt(col);
+        if (result.isWin() || result.isDraw()) {
+            EngineMetrics.getDefault().recordGameFinished();
+        }
+        if (ponderer != null && !player) {
+            ponder(); // The player's turn, think about the replies while they think
+        }
+    }
+
+    /**
+     * replayMove
+     * This method adds a move that was played before, e.g. when a saved game or journal is read back, so it is not
+     * counted again in the metrics as a game being played and does not start pondering
+     * @param col - The column that the player/computer has selected
+     * @param player - A Boolean value denoting whether the move is made by the player or the computer
+     * @throws IllegalArgumentException if the column is full or not on the board
+     */
+    public void replayMove(int col, boolean player) {
+        int row = board.play(col, player); // Drops the disc on top of the column, using the board's column heights
+        history.push(col, player);
+        if (journal != null) {
+            journal.move(col, player); // Record the move in the journal
+        }
+        fireEvent(GameEvent.MOVE_PLACED, col, row, player);
     }
 
     /**
      * undoMove 
      * This method undoes the last moves made by the player and computer
-     * Junctioned to the ConnectFourUI class and the ConnectFourGUI class****** //change later
+     * Junctioned to the ConnectFourUI class and the ConnectFourGUI class
      */
     public void undoMove() {
-        if (!moveHistory.isEmpty()) { // Check if there are moves in the move history stack
-            int col = moveHistory.pop(); // Retrieve the last column from the move history
-            int row = findTopOccupiedRow(col); // Find the top occupied row in the selected column
-            if (row >= 0) { // Check if the row is valid (not empty)
-                moves[col][row].setState(EMPTYSLOT); // Reset the state of the slot to empty
-                if (!moveHistory.isEmpty()) { // Check if there are more moves in the history
-                    col = moveHistory.pop(); // Retrieve the column of the previous move
-                    row = findTopOccupiedRow(col); // Find the top occupied row in the selected column
-                    if (row >= 0) { // Check if the row is valid (not empty)
-                        moves[col][row].setState(EMPTYSLOT); // Reset the state of the slot to empty
-                    }
+        undo(2); // The player's move and the computer's reply
+    }
+
+    /**
+     * undo
+     * This method takes back moves, which can be redone until a new move is made
+     * @param plies - the number of moves to take back
+     * @return the number of moves taken back, fewer if the game has fewer moves
+     */
+    public int undo(int plies) {
+        int undone = 0;
+        beginBatch(); // The listeners hear about every move taken back at once
+        try {
+            while (undone < plies && !history.isEmpty()) {
+                int col = history.pop();
+                int row = board.unplay(col); // Remove the top disc of the column
+                if (journal != null) {
+                    journal.undo(); // Record the undone move in the journal
                 }
+                fireEvent(GameEvent.MOVE_UNDONE, col, row, history.isPlayer(history.size()));
+                undone++;
             }
+        } finally {
+            endBatch();
+        }
+        if (undone > 0) {
+            ponder(); // Think about the new position, or stop if it is the computer's turn
+        }
+        return undone;
+    }
+
+    /**
+     * redo
+     * This method makes the next move that was undone again
+     * @return true if there was a move to redo
+     */
+    public boolean redo() {
+        return redo(1) == 1;
+    }
+
+    /**
+     * redo
+     * This method makes moves that were undone again, in the order they were first made
+     * @param plies - the number of moves to redo
+     * @return the number of moves redone, fewer if fewer were undone
+     */
+    public int redo(int plies) {
+        int redone = 0;
+        beginBatch(); // The listeners hear about every move redone at once
+        try {
+            while (redone < plies && history.getRedoCount() > 0) {
+                int move = history.forward();
+                int col = move & ~MoveHistory.PLAYER_FLAG;
+                boolean player = (move & MoveHistory.PLAYER_FLAG) != 0;
+                int row = board.play(col, player);
+                if (journal != null) {
+                    journal.move(col, player);
+                }
+                fireEvent(GameEvent.MOVE_PLACED, col, row, player);
+                redone++;
+            }
+        } finally {
+            endBatch();
+        }
+        if (redone > 0) {
+            ponder(); // Think about the new position, or stop if it is the computer's turn
+        }
+        return redone;
+    }
+
+    /**
+     * canRedo
+     * @return true if there are undone moves that can be redone
+     */
+    public boolean canRedo() {
+        return history.getRedoCount() > 0;
+    }
+
+    /**
+     * jumpToPly
+     * This method undoes or redoes moves until the given number of moves are on the board, e.g. to step through a
+     * replayed game
+     * @param ply - the number of moves to leave on the board, from 0 to the moves made plus those that can be redone
+     * @throws IllegalArgumentException if the ply cannot be reached
+     */
+    public void jumpToPly(int ply) {
+        if (ply < 0 || ply > history.size() + history.getRedoCount()) {
+            throw new IllegalArgumentException("Ply " + ply + " is not in the game");
+        }
+        if (ply < history.size()) {
+            undo(history.size() - ply);
+        } else {
+            redo(ply - history.size());
+        }
+    }
+
+    /**
+     * getPly
+     * @return the number of moves on the board
+     */
+    public int getPly() {
+        return history.size();
+    }
+
+    /**
+     * addGameListener
+     * @param listener - told about every change to the game from now on
+     */
+    public void addGameListener(GameListener listener) {
+        if (listeners == null) {
+            listeners = new ArrayList<>();
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * removeGameListener
+     * @param listener - a listener that should no longer be told about changes
+     */
+    public void removeGameListener(GameListener listener) {
+        if (listeners != null) {
+            listeners.remove(listener);
+            if (listeners.isEmpty()) {
+                listeners = null; // Back to making no events at all
+            }
+        }
+    }
+
+    /**
+     * beginBatch
+     * This method holds back the changes made from now on until the matching endBatch, so the listeners hear about a
+     * whole action at once, e.g. the player's move and the computer's reply. Batches can be nested.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * endBatch
+     * This method ends a batch started by beginBatch, and passes the changes to the listeners when the outermost
+     * batch ends
+     * @throws IllegalStateException if no batch was begun
+     */
+    public void endBatch() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("endBatch without beginBatch");
+        }
+        if (--batchDepth == 0) {
+            flushEvents();
+        }
+    }
+
+    /**
+     * fireEvent
+     * This method records a change for the listeners, passing it on straight away unless a batch is open.
+     * Nothing is made when nobody is listening.
+     * @param type - the GameEvent type
+     * @param col - the cell's column, -1 for a reset or load
+     * @param row - the cell's row counted from the top, -1 for a reset or load
+     * @param player - true if the disc is the player's
+     */
+    private void fireEvent(int type, int col, int row, boolean player) {
+        if (listeners == null) {
+            return;
+        }
+        if (pendingEvents == null) {
+            pendingEvents = new ArrayList<>();
+        }
+        pendingEvents.add(new GameEvent(type, col, row, player));
+        if (batchDepth == 0) {
+            flushEvents();
+        }
+    }
+
+    /**
+     * flushEvents
+     * This method passes the changes held back to every listener in one call
+     */
+    private void flushEvents() {
+        if (pendingEvents == null || listeners == null) {
+            pendingEvents = null;
+            return;
+        }
+        List<GameEvent> events = Collections.unmodifiableList(pendingEvents);
+        pendingEvents = null; // Changes made by the listeners themselves start a new list
+        for (GameListener listener : new ArrayList<>(listeners)) { // Listeners may add or remove listeners
+            listener.gameChanged(this, events);
         }
     }
 
     /**
      * saveGame
-     * Saves game to a file
+     * Saves game to a file in the compact GameCodec format
      * Junctioned to the ConnectFourUI class and the ConnectFourGUI class
      */
     public void saveGame(String fileName) {
-        try (FileOutputStream fileOutputStream = new FileOutputStream(fileName);
-        ObjectOutputStream objectOutputStream = new ObjectOutputStream(fileOutputStream)) {
-
-            // Serialize and save the game object
-            objectOutputStream.writeObject(this); // Serialize the current instance of the game
+        try {
+            GameCodec.save(this, fileName); // Write the moves of the current game
 
             System.out.println("Game saved successfully to " + fileName); // Display success message
         } catch (IOException e) {
@@ -116,140 +405,416 @@ public class ConnectFour implements Serializable { // Serializable implemented t
 
     /**
      * loadGame
-     * This method loads a previous saved game of the player
+     * This method loads a previous saved game of the player, from a GameCodec file or an older serialized save
      * Junctioned to the ConnectFourUI class and the ConnectFourGUI class
      */
     public boolean loadGame(String fileName) {
-        try (FileInputStream fileInputStream = new FileInputStream(fileName);
-        ObjectInputStream objectInputStream = new ObjectInputStream(fileInputStream)) {
-
-            // Deserialize and load game
-            ConnectFour loadedGame = (ConnectFour) objectInputStream.readObject();
+        try {
+            ConnectFour loadedGame = GameCodec.load(fileName);
 
             // Update current game using saved game file
-            this.moves = loadedGame.moves;
-            this.moveHistory = loadedGame.moveHistory;
+            this.board = loadedGame.board;
+            this.moves = null;
+            this.history = loadedGame.history;
+            if (journal != null) {
+                journal.reset(this); // The journal now holds the loaded game
+            }
+            fireEvent(GameEvent.GAME_LOADED, -1, -1, false);
+            ponder();
 
             return true;
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException e) {
             System.err.println("Error while loading the game: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * writeObject
+     * This method writes the game in its original serialized form, the slot grid and the move history
+     * @param out - the stream to write to
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("currentPlayer", isPlayerToMove());
+        fields.put("moves", getMoves());
+        fields.put("moveHistory", history.toStack());
+        out.writeFields();
+    }
 
+    /**
+     * readObject
+     * This method reads a game in its original serialized form and rebuilds the board from the slot grid.
+     * Older versions did not clear the move history when the board was cleared, so only the latest moves are kept.
+     * @param in - the stream to read from
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        Slot[][] grid = (Slot[][]) fields.get("moves", null);
+        Stack<Integer> history = (Stack<Integer>) fields.get("moveHistory", null);
+        if (grid == null || grid.length == 0 || grid[0] == null) {
+            throw new IOException("Saved game has no board");
+        }
+        int rows = grid[0].length;
+        if (grid.length > GridBoard.MAX_SIZE || rows == 0 || rows > GridBoard.MAX_SIZE) {
+            throw new IOException("Saved game has an unsupported " + grid.length + "x" + rows + " board");
+        }
+
+        // Drop the discs of each column from the bottom row up (serialized games were always four in a row)
+        board = GameBoard.create(grid.length, rows, Math.min(Bitboard.CONNECT, Math.max(grid.length, rows)));
+        for (int col = 0; col < grid.length; col++) {
+            if (grid[col] == null || grid[col].length != rows) {
+                throw new IOException("Saved game has a damaged board");
+            }
+            for (int row = rows - 1; row >= 0; row--) {
+                String state = grid[col][row] == null ? EMPTYSLOT : grid[col][row].getState();
+                if (EMPTYSLOT.equals(state)) {
+                    break;
+                }
+                board.play(col, PLAYERMOVE.equals(state));
+            }
+        }
+
+        // Keep the latest entries of the history, one per disc, if they fill the columns the board has
+        this.history = new MoveHistory(getColumns() * rows);
+        if (history != null && history.size() >= board.getMoveCount()) {
+            int[] heights = new int[getColumns()];
+            for (int i = history.size() - board.getMoveCount(); i < history.size(); i++) {
+                Integer col = history.get(i);
+                if (col == null || col < 0 || col >= getColumns() || heights[col] >= board.getHeight(col)) {
+                    break;
+                }
+                int row = rows - 1 - heights[col]++;
+                this.history.push(col, PLAYERMOVE.equals(board.getState(col, row)));
+            }
+        }
+        if (this.history.size() != board.getMoveCount()) { // The order is lost, so undo takes discs column by column
+            this.history.clear();
+            for (int col = 0; col < getColumns(); col++) {
+                for (int row = rows - 1; row >= rows - board.getHeight(col); row--) {
+                    this.history.push(col, PLAYERMOVE.equals(board.getState(col, row)));
+                }
+            }
+        }
+    }
+
+    /**
+     * getJournal
+     * @return the journal recording the game's changes, or null if the game is not journaled
+     */
+    public MoveJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * setJournal
+     * This method starts recording every change to the game in a journal, beginning with a snapshot of the game as it is
+     * @param journal - the journal to record in, or null to stop journaling
+     */
+    public void setJournal(MoveJournal journal) {
+        this.journal = journal;
+        if (journal != null) {
+            journal.reset(this);
+        }
+    }
 
     /**
      * generateComputerMove
-     * This method generates the computer's move using a random number generator
-     * // Computer difficulty level has been raised to improve play experience //
+     * This method generates the computer's move by asking the search engine for the best column
+     * // Computer difficulty level is set by the depth of the engine, see setEngine //
+     * Games on other boards than the standard one are played by GridEngine instead.
+     * The time taken and the work done by the search are recorded in the EngineMetrics.
      */
     public void generateComputerMove() {
-        Random randomGen = new Random(); // Initialize a random number generator
-
-        int col;
-
-        // Firstly - computer checks for a good move in the game
-        for (col = 0; col < 7; col++) {
-            int row = findRow(col); // Find the lowest available row in the column
-            if (row >= 0) {
-                moves[col][row].setState(COMPUTERMOVE); // Set the slot as a potential computer move
-                if (checkWin() != null) {
-                    moves[col][row].setState(EMPTYSLOT); // Reset the slot for the next move
-                    addMove(col, false); // Make the winning move
-                    return;
-                }
-                moves[col][row].setState(EMPTYSLOT); // Reset the slot for the next move
+        int col = findComputerMove(board);
+        if (col >= 0) { // Check there was a legal move left to make
+            addMove(col, false); // Make the selected move
+        }
+    }
+
+    /**
+     * findComputerMove
+     * This method finds the computer's move without making it. Given a copy of the board (see GameBoard.copy) it can
+     * run on another thread while the game is shown, and a search can be cut short with getEngine().stop().
+     * The time taken and the work done by the search are recorded in the EngineMetrics.
+     * @param position - the board to find the move on, the game's own board or a copy of it
+     * @return the column to play, or -1 if there is no legal move
+     */
+    public int findComputerMove(GameBoard position) {
+        return findComputerMove(position, -1);
+    }
+
+    /**
+     * findComputerMove
+     * This method finds the computer's move without making it, unless the engine is cancelled (see Engine.cancel)
+     * after the given generation, even if the cancel comes before the search has started
+     * @param position - the board to find the move on, the game's own board or a copy of it
+     * @param generation - the engine's generation when the move was asked for, or -1 to search whatever its generation
+     * @return the column to play, or -1 if there is no legal move or the search was cancelled
+     */
+    public int findComputerMove(GameBoard position, long generation) {
+        EngineMetrics metrics = EngineMetrics.getDefault();
+        long start = System.nanoTime();
+        int col = chooseComputerMove(position, metrics, generation);
+        metrics.recordMove(System.nanoTime() - start);
+        return col;
+    }
+
+    /**
+     * isPondering
+     * @return true if the computer searches its replies while the player is thinking
+     */
+    public boolean isPondering() {
+        return ponderer != null;
+    }
+
+    /**
+     * setPondering
+     * This method switches pondering on or off for this game. While pondering, the computer searches its reply to
+     * each move the player could make during the player's turn, so it answers sooner at the same strength.
+     * Only the standard 7x6 game is pondered.
+     * @param pondering - true to ponder, false to stop
+     */
+    public void setPondering(boolean pondering) {
+        if (pondering && ponderer == null) {
+            ponderer = new Ponderer();
+            ponder();
+        } else if (!pondering && ponderer != null) {
+            ponderer.shutdown();
+            ponderer = null;
+        }
+    }
+
+    /**
+     * getPonderer
+     * @return the ponderer searching on the player's time, with its hit and miss counts, or null if pondering is off
+     */
+    public Ponderer getPonderer() {
+        return ponderer;
+    }
+
+    /**
+     * ponder
+     * This method starts pondering if it is on and it is the player's turn, and stops it otherwise. Positions the
+     * opening book or endgame database will answer are not pondered.
+     */
+    private void ponder() {
+        if (ponderer == null) {
+            return;
+        }
+        Bitboard board = getBitboard();
+        if (board == null || !isPlayerToMove() || board.hasWon(true) || board.hasWon(false) || board.isFull()) {
+            ponderer.stop(); // Nothing to ponder
+            return;
+        }
+        int after = board.getMoveCount() + 1; // Discs on the board when the computer replies
+        OpeningBook book = getOpeningBook();
+        EndgameDatabase endgame = getEndgameDatabase();
+        if ((book != null && after <= book.getPlies())
+                || (endgame != null && Bitboard.WIDTH * Bitboard.HEIGHT - after <= endgame.getMaxEmpty())) {
+            ponderer.stop(); // Looked up, not searched
+            return;
+        }
+
+        // The player's moves from the centre outwards, leaving out the ones that win straight away
+        int[] columns = new int[Bitboard.WIDTH];
+        int count = 0;
+        for (int i = 0; i < Bitboard.WIDTH; i++) {
+            int col = Bitboard.WIDTH / 2 + (i % 2 == 0 ? i / 2 : -(i + 1) / 2);
+            if (board.canPlay(col) && !board.isWinningMove(col, true)) {
+                columns[count++] = col;
+            }
+        }
+        ponderer.start(board, Arrays.copyOf(columns, count), getEngine());
+    }
+
+    /**
+     * chooseComputerMove
+     * This method finds the computer's move: from the opening book or endgame database if they hold the position,
+     * otherwise by searching
+     * @param position - the board to find the move on
+     * @param metrics - records the work done by the search
+     * @param generation - the engine's generation when the move was asked for, or -1 to search whatever its generation
+     * @return the column to play, or -1 if there is no legal move or the search was cancelled
+     */
+    private int chooseComputerMove(GameBoard position, EngineMetrics metrics, long generation) {
+        if (!(position instanceof Bitboard)) {
+            return GridEngine.chooseMove((GridBoard) position, false);
+        }
+        Bitboard board = (Bitboard) position;
+
+        Ponderer ponderer = this.ponderer;
+        if (ponderer != null) { // Stop pondering, and use its reply if it searched this position to the end
+            SearchResult pondered = ponderer.finish(board, getEngine(), metrics);
+            if (pondered != null && board.canPlay(pondered.getColumn())) {
+                return pondered.getColumn();
+            }
+        }
+
+        OpeningBook book = getOpeningBook();
+        if (book != null && board.getMoveCount() <= book.getPlies()) { // Opening positions are looked up, not searched
+            int col = book.bestMove(board, false);
+            if (board.canPlay(col)) {
+                return col; // The book move
             }
         }
 
-        // Next - computer will look for the best move to make
-        for (col = 0; col < 7; col++) { //FLAG
-            int row = findRow(col); // Find the lowest available row in the column
-            if (row >= 0) {
-                moves[col][row].setState(PLAYERMOVE); // Set the slot as a potential player move
-                if (checkWin() != null) {
-                    moves[col][row].setState(EMPTYSLOT); // Reset the slot for the next move
-                    addMove(col, false); // Blocks the player
-                    return;
+        EndgameDatabase endgame = getEndgameDatabase();
+        if (endgame != null && Bitboard.WIDTH * Bitboard.HEIGHT - board.getMoveCount() <= endgame.getMaxEmpty()) {
+            try {
+                SearchResult solved = endgame.lookup(board, false); // Endgame positions are looked up, not searched
+                if (solved != null && board.canPlay(solved.getColumn())) {
+                    return solved.getColumn(); // The perfect move
                 }
-                moves[col][row].setState(EMPTYSLOT); // Reset the slot for the next move
+            } catch (IOException e) {
+                System.err.println("Error while reading the endgame database: " + e.getMessage());
             }
         }
 
-        // If computer cannot make a winning move, choose the next available option randomly
-        do {
-            col = randomGen.nextInt(7); // Generate a random column
-        } while (findRow(col) == -1); // Repeat until a valid column is found
+        Engine engine = getEngine();
+        TranspositionTable table = engine.getTable();
+        long hits = table == null ? 0 : table.getHits();
+        long probes = table == null ? 0 : hits + table.getMisses();
+        long start = System.nanoTime();
+        SearchResult result = engine.search(board, false, generation < 0 ? engine.getGeneration() : generation);
+        if (result.getColumn() < 0) {
+            return -1; // Cancelled before the search finished a depth, so there is nothing to record
+        }
+        long nanos = System.nanoTime() - start;
+        if (table != null) {
+            long nowHits = table.getHits();
+            metrics.recordSearch(result, nanos, nowHits - hits, nowHits + table.getMisses() - probes);
+        } else {
+            metrics.recordSearch(result, nanos, 0, 0);
+        }
+        return result.getColumn();
+    }
+
+    /**
+     * getOpeningBook
+     * This method returns the opening book used for the computer's first moves
+     * @return the game's opening book, or the shared default book (null if there is no book file)
+     */
+    public OpeningBook getOpeningBook() {
+        return openingBook != null ? openingBook : OpeningBook.getDefault();
+    }
+
+    /**
+     * setOpeningBook
+     * @param openingBook - the opening book to use, or null to use the shared default book
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * getEndgameDatabase
+     * This method returns the endgame database used for the computer's last moves
+     * @return the game's endgame database, or the shared default database (null if there is no database file)
+     */
+    public EndgameDatabase getEndgameDatabase() {
+        return endgameDatabase != null ? endgameDatabase : EndgameDatabase.getDefault();
+    }
+
+    /**
+     * setEndgameDatabase
+     * @param endgameDatabase - the endgame database to use, or null to use the shared default database
+     */
+    public void setEndgameDatabase(EndgameDatabase endgameDatabase) {
+        this.endgameDatabase = endgameDatabase;
+    }
+
+    /**
+     * getEngine
+     * This method returns the engine that chooses the computer's moves, creating the default one if needed
+     * @return the search engine
+     */
+    public Engine getEngine() {
+        if (engine == null) {
+            engine = new Engine(); // Engines are not saved with the game, so a loaded game starts with the default
+        }
+        return engine;
+    }
 
-        addMove(col, false); // Make the selected move
+    /**
+     * setEngine
+     * This method changes the engine that chooses the computer's moves, e.g. to change its depth or evaluator
+     * @param engine - the search engine
+     */
+    public void setEngine(Engine engine) {
+        this.engine = engine;
     }
 
     /**
      * checkWin
      * This method checks whether there is a vertical, horizontal, or diagonal match of four slots, to determine who has won the game
-     * @return This value is the winner of the game or null if no one has won yet
+     * @return This value is the winner of the game (or the draw message if the board is full), or null if the game is still going
      */
     public String checkWin() {
-        try {
-            for (int c = 0; c < 6; c++) { // Loop through columns
-                for (int r = 0; r < 6; r++) { // Loop through rows
-                    if (moves[r][c].getState().equals(PLAYERMOVE) || moves[r][c].getState().equals(COMPUTERMOVE)) {
-                        // Check for a horizontal win
-                        if (c + 3 < 6) {
-                            if (moves[r][c].getState().equals(moves[r][c + 1].getState()) &&
-                            moves[r][c].getState().equals(moves[r][c + 2].getState()) &&
-                            moves[r][c].getState().equals(moves[r][c + 3].getState())) {
-                                if (moves[r][c].getState().equals(PLAYERMOVE)) {
-                                    return "YOU have won the game with 4 in a row, congratulations!!";
-                                } else {
-                                    return "COMPUTER has won the game with 4 in a row, tough luck!!";
-                                }
-                            }
-                        }
-                        // Check for a vertical win
-                        if (r + 3 < 7) {
-                            if (moves[r][c].getState().equals(moves[r + 1][c].getState()) &&
-                            moves[r][c].getState().equals(moves[r + 2][c].getState()) &&
-                            moves[r][c].getState().equals(moves[r + 3][c].getState())) {
-                                if (moves[r][c].getState().equals(PLAYERMOVE)) {
-                                    return "YOU have won the game with 4 in a row, congratulations!!";
-                                } else {
-                                    return "COMPUTER has won the game with 4 in a row, tough luck!!";
-                                }
-                            }
-                        }
-                        // Check for a diagonal win, from top-left to bottom-right //FLAG
-                        if (c + 3 < 6 && r + 3 < 7) {
-                            if (moves[r][c].getState().equals(moves[r + 1][c + 1].getState()) &&
-                            moves[r][c].getState().equals(moves[r + 2][c + 2].getState()) &&
-                            moves[r][c].getState().equals(moves[r + 3][c + 3].getState())) {
-                                if (moves[r][c].getState().equals(PLAYERMOVE)) {
-                                    return "YOU have won the game with 4 in a row!!";
-                                } else {
-                                    return "COMPUTER has won the game with 4 in a row, tough luck!!";
-                                }
-                            }
-                        }
-                        // Check for a diagonal win, from top-right to bottom-left
-                        if (c - 3 >= 0 && r + 3 < 7) { //FLAG
-                            if (moves[r][c].getState().equals(moves[r + 1][c - 1].getState()) &&
-                            moves[r][c].getState().equals(moves[r + 2][c - 2].getState()) &&
-                            moves[r][c].getState().equals(moves[r + 3][c - 3].getState())) {
-                                if (moves[r][c].getState().equals(PLAYERMOVE)) {
-                                    return "PLAYER has won the game with 4 in a row, congratulations!!";
-                                } else {
-                                    return "COMPUTER has won the game with 4 in a row, tough luck!!";
-                                }
-                            }
-                        }
-                    }
-                }
+        return getWinResult().getMessage();
+    }
+
+    /**
+     * getWinResult
+     * This method checks the lines through the last disc dropped, and only looks at the rest of the board if that disc
+     * did not win (e.g. the computer moved after the player had already won)
+     * @return the winner with the winning slots and direction, a draw if the board is full, or WinResult.NONE
+     */
+    public WinResult getWinResult() {
+        if (!history.isEmpty()) {
+            WinResult result = board.checkWinAt(history.lastColumn()); // Only the lines through the last disc
+            if (result.isWin()) {
+                return result;
             }
-        } catch (ArrayIndexOutOfBoundsException e) {
-            // As the move could begin in slot 5, this allows the user to continue playing the game when the check contains higher numbers than the size of the array
         }
-        return null; // No winner yet
+        if (board.hasWon(true) || board.hasWon(false)) { // A win somewhere else on the board
+            return board.findWin();
+        }
+        return board.isFull() ? WinResult.DRAW : WinResult.NONE;
+    }
+
+    /**
+     * perft
+     * This method counts every legal continuation of the game to the given number of plies, stopping at wins
+     * @param depth - the number of plies to count
+     * @return the number of continuations
+     */
+    public long perft(int depth) {
+        return Perft.count(standardBoard().copy(), isPlayerToMove(), depth);
+    }
+
+    /**
+     * perftParallel
+     * This method counts every legal continuation like perft, splitting the work across several threads
+     * @param depth - the number of plies to count
+     * @param threads - the number of threads to count with
+     * @return the number of continuations
+     */
+    public long perftParallel(int depth, int threads) {
+        return Perft.countParallel(standardBoard(), isPlayerToMove(), depth, threads);
+    }
+
+    /**
+     * standardBoard
+     * @return the board as a Bitboard
+     * @throws UnsupportedOperationException if the game is not on the standard board
+     */
+    private Bitboard standardBoard() {
+        Bitboard bitboard = getBitboard();
+        if (bitboard == null) {
+            throw new UnsupportedOperationException("Only the standard 7x6 game is supported");
+        }
+        return bitboard;
+    }
+
+    /**
+     * isPlayerToMove
+     * The player always starts, so it is the player's turn whenever both sides have made the same number of moves
+     * @return true if it is the player's turn
+     */
+    public boolean isPlayerToMove() {
+        return board.getMoveCount() % 2 == 0;
     }
 
     /**
@@ -259,12 +824,10 @@ public class ConnectFour implements Serializable { // Serializable implemented t
      * @return the row value
      */
     public int findRow(int col) {
-        for (int row = 5; row >= 0; row--) { // Loop through rows from bottom to top
-            if (moves[col][row].getState().equals(EMPTYSLOT)) { // Check if the slot at the current row is empty
-                return row; // Return the row number of the first empty slot found
-            }
+        if (!board.canPlay(col)) {
+            return -1; // Return -1 if the column is full (no empty slots found)
         }
-        return -1; // Return -1 if the column is full (no empty slots found)
+        return getRows() - 1 - board.getHeight(col); // Return the row number of the lowest empty slot
     }
 
     /**
@@ -274,12 +837,10 @@ public class ConnectFour implements Serializable { // Serializable implemented t
      * @return the row value
      */
     public int findTopOccupiedRow(int col) {
-        for (int row = 0; row < 6; row++) { // Loop through each row in the column.
-            if (!moves[col][row].getState().equals(EMPTYSLOT)) { // Check if the slot is not empty.
-                return row; // Return the row number of the highest occupied slot.
-            }
+        if (col < 0 || col >= getColumns() || board.getHeight(col) == 0) {
+            return -1; // Return -1 if the column is completely empty.
         }
-        return -1; // Return -1 if the column is completely empty.
+        return getRows() - board.getHeight(col); // Return the row number of the highest occupied slot.
     }
 
 }//End of class ConnectFour
@@ -8,6 +8,7 @@ import java.util.InputMismatchException;
 import java.io.EOFException;
 import java.io.Serializable;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 
 /**
  * ConnectFourUI
@@ -20,13 +21,62 @@ public class ConnectFourUI {
     private ConnectFour game; //The ConnectFour game
     private Slot moves[][];// 2D array of moves
     private String menuChoice = "x"; // user's selection from the menu, x by default
+    private MoveJournal journal; // Records the game on disk as it is played, null if journaling is off
+    private boolean pondering; // True if the computer thinks about its replies while the player is choosing a move
 
     /**
      * Constructor for the ConnectFourUI class.
      * This method creates the game, initialises the scanner to read input, displays the initial game board and menu.
      */
     public ConnectFourUI() {
-        game = new ConnectFour();
+        this(null);
+    }
+
+    /**
+     * Constructor for the ConnectFourUI class.
+     * This method carries on the game kept in a journal file, or creates a new one, and journals every move from then on.
+     * @param journalFile - the journal file, or null to play without journaling
+     */
+    public ConnectFourUI(String journalFile) {
+        this(journalFile, Bitboard.WIDTH, Bitboard.HEIGHT, Bitboard.CONNECT);
+    }
+
+    /**
+     * Constructor for the ConnectFourUI class.
+     * This method plays on a board of any size, e.g. 19x19 with five in a row, carrying on a journaled game if there is one.
+     * @param journalFile - the journal file, or null to play without journaling
+     * @param columns - the number of columns
+     * @param rows - the number of rows
+     * @param connect - the number of discs in a row that win the game
+     */
+    public ConnectFourUI(String journalFile, int columns, int rows, int connect) {
+        this(journalFile, columns, rows, connect, false);
+    }
+
+    /**
+     * Constructor for the ConnectFourUI class.
+     * This method plays on a board of any size, optionally letting the computer ponder its replies on the player's time.
+     * @param journalFile - the journal file, or null to play without journaling
+     * @param columns - the number of columns
+     * @param rows - the number of rows
+     * @param connect - the number of discs in a row that win the game
+     * @param pondering - true to search the computer's replies while the player is choosing a move
+     */
+    public ConnectFourUI(String journalFile, int columns, int rows, int connect, boolean pondering) {
+        this.pondering = pondering;
+        setGame(new ConnectFour(columns, rows, connect));
+        if (journalFile != null) {
+            try {
+                ConnectFour recovered = MoveJournal.recover(journalFile); // The game as it was when the program stopped
+                if (recovered.getHistory().isEmpty()) {
+                    recovered = game; // Nothing to carry on, so start a game of the size asked for
+                }
+                journal = new MoveJournal(journalFile);
+                setGame(recovered);
+            } catch (IOException e) {
+                System.err.println("Error while opening the move journal: " + e.getMessage());
+            }
+        }
         consoleReader = new Scanner(System.in);
         displayGame();
         menu();
@@ -35,10 +85,99 @@ public class ConnectFourUI {
     /**
      * Public static void main - the first method that runs when the project is run. 
      * This method initialises a new instance of the ConnectFour UI.
-     * @param args 
+     * @param args - optionally "--journal" and a file name, to keep the game in a journal as it is played,
+     * "--board" and a size such as 19x19, "--connect" and the number of discs in a row that win, and "--ponder"
+     * and on or off, to let the computer think on the player's time.
+     * Or "--analyze" to find the best move in each position read from the input instead of playing (see
+     * PositionAnalyzer), with optionally "--depth", "--nodes" or "--time" and the limit for each search in plies,
+     * positions or milliseconds, and "--threads" and the number of positions to analyse at once
      */
     public static void main(String args[]) {
-        ConnectFourUI ui = new ConnectFourUI();
+        String journalFile = null;
+        int columns = Bitboard.WIDTH;
+        int rows = Bitboard.HEIGHT;
+        int connect = Bitboard.CONNECT;
+        boolean ponder = false;
+        boolean analyze = false;
+        int depth = 0;
+        long nodes = 0;
+        long time = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--analyze")) {
+                analyze = true;
+            } else if (i + 1 == args.length) {
+                break; // The other options are each followed by a value
+            } else if (args[i].equals("--journal")) {
+                journalFile = args[++i];
+            } else if (args[i].equals("--board")) {
+                String[] size = args[++i].toLowerCase().split("x");
+                columns = Integer.parseInt(size[0]);
+                rows = Integer.parseInt(size[1]);
+            } else if (args[i].equals("--connect")) {
+                connect = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--ponder")) {
+                ponder = args[++i].equalsIgnoreCase("on");
+            } else if (args[i].equals("--depth")) {
+                depth = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--nodes")) {
+                nodes = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--time")) {
+                time = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                i++; // Skip the value of an unknown option
+            }
+        }
+        if (analyze) {
+            if (depth == 0) { // Search as deep as the node or time budget allows, or to the computer's usual depth
+                depth = nodes > 0 || time > 0 ? Bitboard.WIDTH * Bitboard.HEIGHT : Engine.DEFAULT_DEPTH;
+            }
+            analyzePositions(depth, nodes, time, threads);
+            return;
+        }
+        ConnectFourUI ui = new ConnectFourUI(journalFile, columns, rows, connect, ponder);
+    }
+
+    /**
+     * analyzePositions
+     * This method reads positions from the standard input and writes the best move in each to the standard output
+     * @param depth - the deepest each search will look, in plies
+     * @param nodes - the number of positions each search may visit, 0 for no limit
+     * @param time - the milliseconds each search may take, 0 for no limit
+     * @param threads - the number of positions to analyse at once
+     */
+    private static void analyzePositions(int depth, long nodes, long time, int threads) {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII));
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.US_ASCII),
+            1 << 16); // Written in large blocks, not a line at a time
+        try {
+            new PositionAnalyzer(depth, nodes, time, threads).analyze(in, out);
+        } catch (IOException e) {
+            System.err.println("Error while analysing positions: " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * setGame
+     * This method replaces the game being played, moving the journal over to the new game and showing its changes
+     * @param newGame - the game to play
+     */
+    private void setGame(ConnectFour newGame) {
+        if (game != null && game != newGame) {
+            game.setPondering(false); // Stop the replaced game's pondering thread
+        }
+        game = newGame;
+        game.setPondering(pondering);
+        game.addGameListener((changed, events) -> displayGame()); // Show the board once after each action
+        if (journal != null) {
+            game.setJournal(journal);
+        }
     }
 
     /**
@@ -91,11 +230,9 @@ public class ConnectFourUI {
             System.out.println("Enter the file name to save the game:");
             String fileName = consoleReader.next();
 
-            try (FileOutputStream fileOutputStream = new FileOutputStream(fileName);
-            ObjectOutputStream objectOutputStream = new ObjectOutputStream(fileOutputStream)) {
-
-                // Serialize and save the game object
-                objectOutputStream.writeObject(game);
+            try {
+                // Save the moves of the game in the compact binary format
+                GameCodec.save(game, fileName);
 
                 System.out.println("Game saved successfully to " + fileName);
             } catch (IOException e) {
@@ -112,8 +249,7 @@ public class ConnectFourUI {
      */
     public void undoMove() {
         System.out.println("Move has been undone");
-        game.undoMove();
-        displayGame(); // Update the display after undoing the move
+        game.undoMove(); // The board is shown again by the game listener
     }
 
     /**
@@ -133,17 +269,15 @@ public class ConnectFourUI {
                 return; // Exit the method if the file doesn't exist
             }
 
-            try (FileInputStream fileInputStream = new FileInputStream(file);
-            ObjectInputStream objectInputStream = new ObjectInputStream(fileInputStream)) {
-
-                // Deserialize and load the game object
-                ConnectFour loadedGame = (ConnectFour) objectInputStream.readObject();
+            try {
+                // Load the game, from the binary format or an older serialized save
+                ConnectFour loadedGame = GameCodec.load(fileName);
 
-                game = loadedGame; // Replace the current game with the loaded game
+                setGame(loadedGame); // Replace the current game with the loaded game
 
                 System.out.println("Game loaded successfully from " + fileName);
                 displayGame(); // Update the display to show the loaded game state
-            } catch (IOException | ClassNotFoundException e) {
+            } catch (IOException e) {
                 System.err.println("Error while loading the game: " + e.getMessage());
                 e.printStackTrace(); // Print the stack trace for debugging
             }
@@ -158,7 +292,7 @@ public class ConnectFourUI {
      * Clears the game
      */
     public void clearGame() {
-        game = new ConnectFour();
+        setGame(new ConnectFour(game.getColumns(), game.getRows(), game.getConnect()));
         displayGame();
     }
 
@@ -174,16 +308,22 @@ public class ConnectFourUI {
             + "   Connect Four, Good luck!\n"
             + "*****************************");
 
-        for (int r = 0; r < 6; r++) {
-            for (int c = 0; c < 7; c++) {
+        StringBuilder divider = new StringBuilder();
+        StringBuilder numbers = new StringBuilder();
+        for (int c = 0; c < game.getColumns(); c++) {
+            divider.append(" - -");
+            numbers.append(String.format("%3d ", c));
+        }
+        for (int r = 0; r < game.getRows(); r++) {
+            for (int c = 0; c < game.getColumns(); c++) {
                 String state = moves[c][r].getState();
                 System.out.print("| " + (state.equals(ConnectFour.EMPTYSLOT) ? " " : state) + " ");
             }
             System.out.print("|\n");
-            System.out.println(" - - - - - - - - - - - - - -");
+            System.out.println(divider);
         }
 
-        System.out.println("  0   1   2   3   4   5   6");
+        System.out.println(numbers);
     }
 
     /**
@@ -193,10 +333,13 @@ public class ConnectFourUI {
     public void makeMove() {
         System.out.println("Please enter the column you wish to select");
         int playerMove = consoleReader.nextInt();
-        game.addMove(playerMove, true);
-        game.generateComputerMove();
-
-        displayGame(); // Update the display after making a move
+        game.beginBatch(); // Show the board once, after the computer's reply
+        try {
+            game.addMove(playerMove, true);
+            game.generateComputerMove();
+        } finally {
+            game.endBatch(); // The game listener updates the display
+        }
 
         checkWin();
     }
@@ -206,10 +349,14 @@ public class ConnectFourUI {
      * Displays game winner
      */
     public void checkWin() {
-        if (game.checkWin()!= null) {
-            System.out.println("And the winner is... " + game.checkWin());
+        WinResult result = game.getWinResult(); // Check the board once for a winner or a draw
+        if (result.isWin()) {
+            System.out.println("And the winner is... " + result.getMessage());
             replay();
-        };
+        } else if (result.isDraw()) {
+            System.out.println("Game over... " + result.getMessage());
+            replay();
+        }
     }
 
     /**
@@ -220,7 +367,7 @@ public class ConnectFourUI {
         System.out.println("Would you like to play again? (Y/N)");
         String choice = consoleReader.next();
         if (choice.equalsIgnoreCase("Y")) {
-            game = new ConnectFour();
+            setGame(new ConnectFour(game.getColumns(), game.getRows(), game.getConnect()));
             displayGame();
             menu();  
         } else if (choice.equalsIgnoreCase("N")) {
@@ -0,0 +1,781 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * EndgameDatabase
+ * This class holds positions near the end of the game solved exactly: whether the side to move wins, draws or loses,
+ * how many plies it takes, and the move that gets there. With a database the computer plays the end of the game
+ * perfectly and without searching.
+ *
+ * The database covers every position with at most a given number of empty cells that can be reached from a starting
+ * position, e.g. the position of a ConnectFour game. It is generated offline one ply at a time: the positions of each
+ * ply are expanded into the next ply in a sort buffer of bounded size, which is spilled to disk as sorted runs and
+ * merged, so the number of positions is not limited by the heap. Each position in range is then solved by an Engine
+ * searching to the end of the game, on several threads.
+ *
+ * Records are sorted by canonical key (see Bitboard.canonicalKey) and written in blocks of BLOCK_RECORDS. Within a
+ * block each key is stored as a variable length difference from the one before, and the block is deflated. Only the
+ * index of blocks (the first key and offset of each) is read when the database is opened; blocks are read from the
+ * file when a position in them is looked up, and the most recently used ones are kept in a cache.
+ *
+ * File layout (big-endian):
+ *   header - magic "C4EG", version, board width, board height, most empty cells, record count, block count,
+ *            index offset (8 bytes)
+ *   blocks - deflated records: key difference (variable length), result (1 byte), best column (1 byte)
+ *   index  - first key (8 bytes) and file offset (8 bytes) of each block
+ * The result byte is the number of discs on the board once the game is won, positive if the side to move wins,
+ * negative if it loses, or 0 for a draw.
+ *
+ * Generate a database with: java EndgameDatabase file most-empty-cells threads memory-MB opening-moves
+ * where the opening moves are the columns played to reach the starting position, counting from 1 (e.g. 4453221334),
+ * as in game records (see GameRecordWriter). Every ply from there to the endgame is expanded, so the opening must
+ * reach far enough into the game.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class EndgameDatabase {
+    public static final String DEFAULT_FILE = "endgame_database.bin"; // Database the game looks for in the working dir
+    public static final int DEFAULT_CACHE_BLOCKS = 256; // Blocks kept in memory unless told otherwise
+    public static final int BLOCK_RECORDS = 4096; // Records in each compressed block
+    private static final int MAGIC = 0x43344547; // "C4EG"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 7 * Integer.BYTES + Long.BYTES;
+    private static final int CELLS = Bitboard.WIDTH * Bitboard.HEIGHT;
+
+    private static EndgameDatabase defaultDatabase; // The database opened from DEFAULT_FILE, shared by every game
+    private static boolean defaultLoaded;           // Set once the default database has been looked for
+
+    private final RandomAccessFile file; // The database file, blocks are read from it as they are needed
+    private final FileChannel channel;   // Reads blocks at their offsets, safe to use from several threads
+    private final int maxEmpty;  // Positions with at most this many empty cells are in the database
+    private final int records;   // The number of positions in the database
+    private final long[] firstKeys; // The first key of each block
+    private final long[] offsets;   // The file offset of each block, and of the index after the last one
+    private final Map<Integer, Block> cache; // Recently used blocks, least recently used first
+    private final LongAdder cacheHits = new LongAdder();   // Lookups that found their block in the cache
+    private final LongAdder cacheMisses = new LongAdder(); // Lookups that read their block from the file
+
+    /**
+     * Constructor for EndgameDatabase class.
+     * Use open to read a database from a file.
+     */
+    private EndgameDatabase(RandomAccessFile file, int maxEmpty, int records, long[] firstKeys, long[] offsets,
+    int cacheBlocks) {
+        this.file = file;
+        this.channel = file.getChannel();
+        this.maxEmpty = maxEmpty;
+        this.records = records;
+        this.firstKeys = firstKeys;
+        this.offsets = offsets;
+        this.cache = new LinkedHashMap<Integer, Block>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Block> eldest) {
+                return size() > cacheBlocks;
+            }
+        };
+    }
+
+    /**
+     * open
+     * This method opens a database with the default cache size
+     * @param fileName - the database file
+     * @return the endgame database
+     * @throws IOException if the file cannot be read or is not a database for this board
+     */
+    public static EndgameDatabase open(String fileName) throws IOException {
+        return open(fileName, DEFAULT_CACHE_BLOCKS);
+    }
+
+    /**
+     * open
+     * This method opens a database, only the header and the block index are read
+     * @param fileName - the database file
+     * @param cacheBlocks - the number of decompressed blocks to keep in memory
+     * @return the endgame database
+     * @throws IOException if the file cannot be read or is not a database for this board
+     */
+    public static EndgameDatabase open(String fileName, int cacheBlocks) throws IOException {
+        if (cacheBlocks < 1) {
+            throw new IllegalArgumentException("The cache must hold at least one block");
+        }
+        RandomAccessFile file = new RandomAccessFile(fileName, "r");
+        try {
+            if (file.length() < HEADER_SIZE || file.readInt() != MAGIC) {
+                throw new IOException(fileName + " is not an endgame database");
+            }
+            int version = file.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported endgame database version " + version);
+            }
+            int width = file.readInt();
+            int height = file.readInt();
+            if (width != Bitboard.WIDTH || height != Bitboard.HEIGHT) {
+                throw new IOException("Endgame database is for a " + width + "x" + height + " board");
+            }
+            int maxEmpty = file.readInt();
+            int records = file.readInt();
+            int blocks = file.readInt();
+            long indexOffset = file.readLong();
+            if (indexOffset + (long) blocks * 2 * Long.BYTES > file.length()) {
+                throw new IOException("Endgame database " + fileName + " is truncated");
+            }
+
+            // Read the block index, the blocks themselves are read when they are needed
+            long[] firstKeys = new long[blocks];
+            long[] offsets = new long[blocks + 1];
+            file.seek(indexOffset);
+            DataInputStream index = new DataInputStream(new BufferedInputStream(new FileInputStream(file.getFD())));
+            for (int i = 0; i < blocks; i++) {
+                firstKeys[i] = index.readLong();
+                offsets[i] = index.readLong();
+            }
+            offsets[blocks] = indexOffset;
+            return new EndgameDatabase(file, maxEmpty, records, firstKeys, offsets, cacheBlocks);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * getDefault
+     * This method opens the database in DEFAULT_FILE the first time it is asked for, and shares it from then on
+     * @return the default endgame database, or null if there is no usable database file
+     */
+    public static synchronized EndgameDatabase getDefault() {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            if (new File(DEFAULT_FILE).exists()) {
+                try {
+                    defaultDatabase = open(DEFAULT_FILE);
+                } catch (IOException e) {
+                    System.err.println("Error while opening the endgame database: " + e.getMessage());
+                }
+            }
+        }
+        return defaultDatabase;
+    }
+
+    /**
+     * lookup
+     * This method looks up the solved result for the side to move
+     * @param board - the current board
+     * @param player - true if the player is to move, false if the computer is
+     * @return the best column and its exact score (as scored by the Engine), or null if the position is not in the
+     * database
+     * @throws IOException if the block holding the position cannot be read
+     */
+    public SearchResult lookup(Bitboard board, boolean player) throws IOException {
+        long key = OpeningBook.key(board, player);
+        long canonicalKey = Bitboard.canonicalKey(key);
+        int empty = CELLS - board.getMoveCount();
+        if (empty > maxEmpty || firstKeys.length == 0 || canonicalKey < firstKeys[0]) {
+            return null;
+        }
+
+        // Find the last block starting at or before the key, then the key within it
+        int blockIndex = Arrays.binarySearch(firstKeys, canonicalKey);
+        if (blockIndex < 0) {
+            blockIndex = -blockIndex - 2;
+        }
+        Block block = block(blockIndex);
+        int record = Arrays.binarySearch(block.keys, canonicalKey);
+        if (record < 0) {
+            return null;
+        }
+        int column = block.columns[record];
+        return new SearchResult(canonicalKey == key ? column : Bitboard.mirrorColumn(column),
+            score(block.results[record]), empty, 0);
+    }
+
+    /**
+     * block
+     * This method returns a block from the cache, reading and decompressing it if it is not there
+     * @param index - the block number
+     * @return the block's records
+     * @throws IOException if the block cannot be read
+     */
+    private Block block(int index) throws IOException {
+        synchronized (cache) {
+            Block block = cache.get(index);
+            if (block != null) {
+                cacheHits.increment();
+                return block;
+            }
+        }
+        cacheMisses.increment();
+
+        // Read and inflate the block outside the lock, so other threads can use the cache meanwhile
+        ByteBuffer compressed = ByteBuffer.allocate((int) (offsets[index + 1] - offsets[index]));
+        while (compressed.hasRemaining()) {
+            if (channel.read(compressed, offsets[index] + compressed.position()) < 0) {
+                throw new EOFException("Endgame database block " + index + " is truncated");
+            }
+        }
+        int count = index < firstKeys.length - 1 ? BLOCK_RECORDS : records - index * BLOCK_RECORDS;
+        Block block = decode(compressed.array(), count, firstKeys[index]);
+        synchronized (cache) {
+            cache.put(index, block);
+        }
+        return block;
+    }
+
+    /**
+     * decode
+     * This method inflates a block and unpacks its records
+     * @param compressed - the deflated block
+     * @param count - the number of records in the block
+     * @param firstKey - the key of the first record
+     * @return the block's records
+     * @throws IOException if the block is corrupt
+     */
+    private static Block decode(byte[] compressed, int count, long firstKey) throws IOException {
+        byte[] raw = new byte[count * (10 + 2)]; // A key difference takes at most 10 bytes
+        int length = 0;
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            while (!inflater.finished() && length < raw.length) {
+                int read = inflater.inflate(raw, length, raw.length - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Endgame database block is truncated");
+                }
+                length += read;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Endgame database block is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+
+        Block block = new Block(count);
+        long key = firstKey;
+        int pos = 0;
+        for (int i = 0; i < count; i++) {
+            long difference = 0;
+            int shift = 0;
+            byte b;
+            do { // Seven bits at a time, lowest first, the top bit is set while more follow
+                if (pos >= length) {
+                    throw new IOException("Endgame database block is corrupt");
+                }
+                b = raw[pos++];
+                difference |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            key += difference;
+            block.keys[i] = key;
+            block.results[i] = raw[pos++];
+            block.columns[i] = raw[pos++];
+        }
+        return block;
+    }
+
+    /**
+     * score
+     * @param result - a stored result byte
+     * @return the Engine's score for the result
+     */
+    private static int score(byte result) {
+        return result == 0 ? 0 : result > 0 ? Engine.winScore(result) : -Engine.winScore(-result);
+    }
+
+    /**
+     * result
+     * @param score - the Engine's exact score for a position
+     * @return the result byte to store: the number of discs on the board once the game is won, positive for a win
+     */
+    private static byte result(int score) {
+        return (byte) (score == 0 ? 0 : Integer.signum(score) * (Engine.WIN_SCORE - Math.abs(score)));
+    }
+
+    /**
+     * getMaxEmpty
+     * @return the most empty cells a position in the database has
+     */
+    public int getMaxEmpty() {
+        return maxEmpty;
+    }
+
+    /**
+     * size
+     * @return the number of positions in the database
+     */
+    public int size() {
+        return records;
+    }
+
+    /**
+     * getBlocks
+     * @return the number of compressed blocks in the database
+     */
+    public int getBlocks() {
+        return firstKeys.length;
+    }
+
+    /**
+     * getCacheHits
+     * @return the number of lookups that found their block in the cache
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * getCacheMisses
+     * @return the number of lookups that read their block from the file
+     */
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * close
+     * This method closes the database file
+     * @throws IOException if the file cannot be closed
+     */
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /**
+     * generate
+     * This method solves every position with at most maxEmpty empty cells reachable from the game's current position
+     * and writes the database. Positions where the game is already won are left out. Every ply between the start and
+     * the endgame is played out on the way, so start far enough into the game for those plies to fit on disk.
+     * @param fileName - the database file to write, temporary files are written next to it
+     * @param start - the game whose current position the positions are reached from, on the standard board
+     * @param maxEmpty - the most empty cells a position in the database may have
+     * @param threads - the number of positions solved at once
+     * @param memoryMb - the memory to use for sorting positions and for the search engines' tables, in megabytes
+     * @return the number of positions in the database
+     * @throws IOException if the database or its temporary files cannot be written
+     */
+    public static int generate(String fileName, ConnectFour start, int maxEmpty, int threads, int memoryMb)
+    throws IOException {
+        Bitboard board = start.getBitboard();
+        if (board == null) {
+            throw new IllegalArgumentException("Endgame databases are only for the standard " + Bitboard.WIDTH + "x"
+                + Bitboard.HEIGHT + " board");
+        }
+        if (threads < 1 || memoryMb < 2) {
+            throw new IllegalArgumentException("At least one thread and 2 MB of memory are required");
+        }
+        File output = new File(fileName).getAbsoluteFile();
+        File dir = output.getParentFile();
+        int bufferSize = (int) Math.min(((long) memoryMb << 20) / 2 / Long.BYTES, Integer.MAX_VALUE - 8);
+        int tableMb = Math.max(1, memoryMb / 2 / threads);
+
+        List<File> levels = new ArrayList<>(); // The solved records of each ply in range, each file sorted by key
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Engine[] engines = new Engine[threads];
+            for (int t = 0; t < threads; t++) {
+                engines[t] = new Engine(CELLS, 0, new ThreatEvaluator());
+                engines[t].setTable(new TranspositionTable(tableMb));
+            }
+
+            // The first ply holds the starting position, unless the game there is already over
+            int moves = board.getMoveCount();
+            long current = start.isPlayerToMove() ? board.getPlayerMask() : board.getComputerMask();
+            long mask = board.getPlayerMask() | board.getComputerMask();
+            File level = File.createTempFile("c4eg", ".keys", dir);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(level)))) {
+                if (!Bitboard.isWin(current ^ mask) && moves < CELLS) {
+                    out.writeLong(Bitboard.canonicalKey(current + mask + Bitboard.BOTTOM_MASK));
+                }
+            }
+
+            // Solve each ply in range, then expand it into the next ply
+            for (; moves < CELLS; moves++) {
+                if (CELLS - moves <= maxEmpty) {
+                    levels.add(solve(level, dir, engines, pool, bufferSize));
+                }
+                File next = moves + 1 < CELLS ? expand(level, dir, new long[bufferSize]) : null;
+                level.delete();
+                if (next == null) {
+                    break;
+                }
+                level = next;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // Merge the plies into one sorted file and pack it into blocks
+        File solved = File.createTempFile("c4eg", ".solved", dir);
+        try {
+            merge(levels, 2, solved);
+            return write(solved, output, maxEmpty);
+        } finally {
+            solved.delete();
+            for (File f : levels) {
+                f.delete();
+            }
+        }
+    }
+
+    /**
+     * expand
+     * This method plays every move in every position of a ply, spilling the positions reached to sorted runs whenever
+     * the buffer is full, and merges the runs into the next ply
+     * @param level - the sorted canonical keys of the ply
+     * @param dir - the directory for temporary files
+     * @param buffer - the sort buffer
+     * @return the file of sorted canonical keys of the next ply, positions where the game is won are left out
+     * @throws IOException if the files cannot be read or written
+     */
+    private static File expand(File level, File dir, long[] buffer) throws IOException {
+        List<File> runs = new ArrayList<>();
+        int count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(level)))) {
+            while (true) {
+                long key;
+                try {
+                    key = in.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                long mask = Bitboard.maskOf(key);
+                long current = (key - Bitboard.BOTTOM_MASK) - mask;
+                for (int col = 0; col < Bitboard.WIDTH; col++) {
+                    long move = (mask + Bitboard.BOTTOM_MASK) & Bitboard.columnMask(col);
+                    if (move == 0 || Bitboard.isWin(current | move)) {
+                        continue; // The column is full, or the move ends the game
+                    }
+                    if (count == buffer.length) {
+                        runs.add(spill(buffer, count, dir));
+                        count = 0;
+                    }
+                    long next = current ^ mask; // The opponent is to move in the position reached
+                    buffer[count++] = Bitboard.canonicalKey(next + (mask | move) + Bitboard.BOTTOM_MASK);
+                }
+            }
+        }
+        runs.add(spill(buffer, count, dir));
+
+        File next = File.createTempFile("c4eg", ".keys", dir);
+        try {
+            merge(runs, 0, next);
+        } finally {
+            for (File run : runs) {
+                run.delete();
+            }
+        }
+        return next;
+    }
+
+    /**
+     * spill
+     * This method sorts the buffered keys and writes them to a run file without duplicates
+     * @return the run file
+     */
+    private static File spill(long[] buffer, int count, File dir) throws IOException {
+        Arrays.sort(buffer, 0, count);
+        File run = File.createTempFile("c4eg", ".run", dir);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run)))) {
+            for (int i = 0; i < count; i++) {
+                if (i == 0 || buffer[i] != buffer[i - 1]) {
+                    out.writeLong(buffer[i]);
+                }
+            }
+        }
+        return run;
+    }
+
+    /**
+     * merge
+     * This method merges sorted files of records into one sorted file, keeping the first record of each key
+     * @param runs - the sorted files, each record a key followed by the payload
+     * @param payload - the number of bytes after the key in each record
+     * @param out - the merged file to write
+     * @throws IOException if the files cannot be read or written
+     */
+    private static void merge(List<File> runs, int payload, File out) throws IOException {
+        DataInputStream[] inputs = new DataInputStream[runs.size()];
+        long[] heads = new long[runs.size()]; // The next key of each run
+        byte[][] payloads = new byte[runs.size()][payload];
+        PriorityQueue<Integer> queue = new PriorityQueue<>(Math.max(1, runs.size()),
+            (a, b) -> Long.compare(heads[a], heads[b]));
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(out)))) {
+            for (int i = 0; i < inputs.length; i++) {
+                inputs[i] = new DataInputStream(new BufferedInputStream(new FileInputStream(runs.get(i))));
+                if (advance(inputs[i], heads, payloads, i)) {
+                    queue.add(i);
+                }
+            }
+            boolean first = true;
+            long last = 0;
+            while (!queue.isEmpty()) {
+                int i = queue.poll();
+                if (first || heads[i] != last) {
+                    output.writeLong(heads[i]);
+                    output.write(payloads[i]);
+                    last = heads[i];
+                    first = false;
+                }
+                if (advance(inputs[i], heads, payloads, i)) {
+                    queue.add(i);
+                }
+            }
+        } finally {
+            for (DataInputStream input : inputs) {
+                if (input != null) {
+                    input.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * advance
+     * This method reads the next record of a run into heads and payloads
+     * @return true if there was a record, false at the end of the run
+     */
+    private static boolean advance(DataInputStream in, long[] heads, byte[][] payloads, int run) throws IOException {
+        try {
+            heads[run] = in.readLong();
+        } catch (EOFException e) {
+            return false;
+        }
+        in.readFully(payloads[run]);
+        return true;
+    }
+
+    /**
+     * solve
+     * This method solves every position of a ply, a buffer full at a time, each thread with an engine of its own
+     * @param level - the sorted canonical keys of the ply
+     * @param dir - the directory for temporary files
+     * @param engines - one engine for each thread, whose tables carry over from one position to the next
+     * @param pool - runs the engines
+     * @param bufferSize - the most positions to hold in memory at once
+     * @return the file of solved records for the ply: key, result byte and best column, sorted by key
+     * @throws IOException if the files cannot be read or written
+     */
+    private static File solve(File level, File dir, Engine[] engines, ExecutorService pool, int bufferSize)
+    throws IOException {
+        File solved = File.createTempFile("c4eg", ".ply", dir);
+        long[] keys = new long[Math.min(bufferSize, 1 << 20)];
+        byte[] results = new byte[keys.length];
+        byte[] columns = new byte[keys.length];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(level)));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(solved)))) {
+            boolean more = true;
+            while (more) {
+                int count = 0;
+                while (count < keys.length) {
+                    try {
+                        keys[count] = in.readLong();
+                    } catch (EOFException e) {
+                        more = false;
+                        break;
+                    }
+                    count++;
+                }
+
+                // Search each position to the end of the game
+                final int total = count;
+                final AtomicInteger next = new AtomicInteger();
+                List<Future<?>> running = new ArrayList<>();
+                for (Engine engine : engines) {
+                    running.add(pool.submit(() -> {
+                        for (int i = next.getAndIncrement(); i < total; i = next.getAndIncrement()) {
+                            long mask = Bitboard.maskOf(keys[i]);
+                            long current = (keys[i] - Bitboard.BOTTOM_MASK) - mask;
+                            int moves = Long.bitCount(mask);
+                            engine.setMaxDepth(CELLS - moves);
+                            SearchResult result = engine.search(current, mask, moves);
+                            results[i] = result(result.getScore());
+                            columns[i] = (byte) result.getColumn();
+                        }
+                    }));
+                }
+                for (Future<?> f : running) {
+                    try {
+                        f.get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Endgame database generation was interrupted");
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException("Solving a position failed", e.getCause());
+                    }
+                }
+                for (int i = 0; i < count; i++) {
+                    out.writeLong(keys[i]);
+                    out.writeByte(results[i]);
+                    out.writeByte(columns[i]);
+                }
+            }
+        }
+        return solved;
+    }
+
+    /**
+     * write
+     * This method packs sorted solved records into compressed blocks and writes the database file
+     * @param solved - the solved records, sorted by key
+     * @param output - the database file to write
+     * @param maxEmpty - the most empty cells a position in the database has
+     * @return the number of records written
+     * @throws IOException if the files cannot be read or written
+     */
+    private static int write(File solved, File output, int maxEmpty) throws IOException {
+        long[] firstKeys = new long[16];
+        long[] offsets = new long[16];
+        int blocks = 0;
+        int records = 0;
+        long offset = HEADER_SIZE;
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(BLOCK_RECORDS * 6);
+        byte[] compressed = new byte[BLOCK_RECORDS * (10 + 2) + 64];
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(solved)));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output)))) {
+            out.write(new byte[HEADER_SIZE]); // Filled in once the index has been written
+            long last = 0;
+            boolean more = true;
+            while (more) {
+                long key;
+                try {
+                    key = in.readLong();
+                } catch (EOFException e) {
+                    key = 0;
+                    more = false;
+                }
+                if (more && records % BLOCK_RECORDS == 0) { // Start a new block
+                    if (blocks == firstKeys.length) {
+                        firstKeys = Arrays.copyOf(firstKeys, blocks * 2);
+                        offsets = Arrays.copyOf(offsets, blocks * 2);
+                    }
+                    firstKeys[blocks] = key;
+                    offsets[blocks++] = offset;
+                    last = key;
+                }
+                if (more) {
+                    for (long difference = key - last; ; difference >>>= 7) { // Seven bits at a time, lowest first
+                        if ((difference & ~0x7FL) == 0) {
+                            raw.write((int) difference);
+                            break;
+                        }
+                        raw.write((int) (difference & 0x7F) | 0x80);
+                    }
+                    raw.write(in.readByte());
+                    raw.write(in.readByte());
+                    last = key;
+                    records++;
+                }
+                if (raw.size() > 0 && (!more || records % BLOCK_RECORDS == 0)) { // Finish the block
+                    deflater.reset();
+                    deflater.setInput(raw.toByteArray());
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        int length = deflater.deflate(compressed);
+                        out.write(compressed, 0, length);
+                        offset += length;
+                    }
+                    raw.reset();
+                }
+            }
+
+            for (int i = 0; i < blocks; i++) {
+                out.writeLong(firstKeys[i]);
+                out.writeLong(offsets[i]);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(output, "rw")) {
+            file.writeInt(MAGIC);
+            file.writeInt(VERSION);
+            file.writeInt(Bitboard.WIDTH);
+            file.writeInt(Bitboard.HEIGHT);
+            file.writeInt(maxEmpty);
+            file.writeInt(records);
+            file.writeInt(blocks);
+            file.writeLong(offset);
+        }
+        return records;
+    }
+
+    /**
+     * Block
+     * The decompressed records of one block, sorted by key
+     */
+    private static class Block {
+        private final long[] keys;    // The canonical position keys
+        private final byte[] results; // The result of each position, see result
+        private final byte[] columns; // The best column of each position, for the canonical one of the pair
+
+        private Block(int count) {
+            keys = new long[count];
+            results = new byte[count];
+            columns = new byte[count];
+        }
+    }
+
+    /**
+     * Main method - generates an endgame database
+     * @param args - the file name, most empty cells, number of threads, memory in megabytes, and the opening moves to
+     * start from as a string of columns counting from 1 (e.g. 4453221334)
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 5 || args[4].isEmpty()) { // Expanding every ply from the empty board would never finish
+            System.err.println("Usage: java EndgameDatabase file most-empty-cells threads memory-MB opening-moves");
+            System.err.println("The opening moves are the columns played to reach the starting position, counting "
+                + "from 1, e.g. 4453221334");
+            return;
+        }
+        String fileName = args[0];
+        int maxEmpty = Integer.parseInt(args[1]);
+        int threads = Integer.parseInt(args[2]);
+        int memoryMb = Integer.parseInt(args[3]);
+        ConnectFour start = new ConnectFour();
+        String opening = args[4];
+        for (int i = 0; i < opening.length(); i++) {
+            int col = GameRecordWriter.COLUMN_CHARS.indexOf(opening.charAt(i));
+            if (col < 0 || col >= Bitboard.WIDTH || !start.getBoard().canPlay(col)
+                    || start.getWinResult().isGameOver()) {
+                System.err.println("Illegal opening move " + opening.charAt(i) + " at move " + (i + 1) + " of "
+                    + opening);
+                return;
+            }
+            start.replayMove(col, start.isPlayerToMove());
+        }
+
+        long begin = System.currentTimeMillis();
+        generate(fileName, start, maxEmpty, threads, memoryMb);
+        EndgameDatabase database = open(fileName);
+        System.out.println("Wrote " + database.size() + " positions with at most " + maxEmpty + " empty cells in "
+            + database.getBlocks() + " blocks (" + new File(fileName).length() + " bytes) to " + fileName + " in "
+            + (System.currentTimeMillis() - begin) + " ms");
+        database.close();
+    }
+
+}//End of class EndgameDatabase
@@ -0,0 +1,790 @@
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Engine
+ * This class searches for the computer's best move using negamax with alpha-beta pruning.
+ * The search runs on two longs copied out of the Bitboard (the discs of the side to move and every occupied cell),
+ * so it never touches the live game and allocates nothing while it searches.
+ * It deepens one ply at a time up to the maximum depth, and stops early if the node budget runs out or another thread
+ * calls stop. Results are kept in a TranspositionTable and only used at exactly the depth they were searched to, so
+ * neither the table, the extra threads (see setThreads) nor the move ordering (see setOrdering) changes the answer.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class Engine {
+    public static final int WIN_SCORE = 100000; // Score for a win on the very first move, quicker wins score higher
+    public static final int DEFAULT_DEPTH = 8;  // Depth used by the computer player unless told otherwise
+    private static final int INFINITY = WIN_SCORE + 1; // Larger than any real score
+    private static final int[] COLUMN_ORDER = columnOrder(); // Columns from the centre outwards
+    private static final int[] LEFT_TO_RIGHT = {0, 1, 2, 3, 4, 5, 6}; // Columns in board order
+    private static final int CELLS = Bitboard.WIDTH * Bitboard.HEIGHT;
+
+    public static final int CENTRE_ORDER = 1; // Search centre columns before outer ones
+    public static final int TABLE_MOVE = 2;   // Search the table's best move first
+    public static final int KILLER_MOVES = 4; // Search the moves that last cut off at the same ply next
+    public static final int HISTORY = 8;      // Search the rest by how well moves to the same cell have done
+    public static final int ALL_ORDERING = CENTRE_ORDER | TABLE_MOVE | KILLER_MOVES | HISTORY;
+    public static final int DEFAULT_ORDERING = CENTRE_ORDER | TABLE_MOVE; // The fastest ordering, see setOrdering
+    private static final int HISTORY_LIMIT = 1 << 21; // History scores are halved before they reach the killer range
+
+    private int maxDepth;          // The deepest the search will look, in plies
+    private long nodeLimit;        // The number of positions the search may visit, 0 for no limit
+    private Evaluator evaluator;   // Scores positions at the end of the search
+    private TranspositionTable table; // Remembers searched positions, null to search without one
+    private int threads = 1;       // Number of threads searching each position
+    private Engine[] helpers;      // Engines run by the helper threads, sharing this engine's table
+    private ExecutorService pool;  // Runs the helper engines
+    private int rootRotation;      // How far a helper rotates the root move order
+    private long nodes;            // Positions visited by the current search
+    private boolean aborted;       // Set once the node budget has run out or the search has been stopped
+    private volatile boolean stopped; // Set to end the search, by stop or by the main engine for a helper
+    private final AtomicLong generation = new AtomicLong(); // Counts calls to cancel, which a search never resets
+    private SearchListener listener; // Told the result of each depth the search finishes, null if nobody is listening
+    private int ordering = DEFAULT_ORDERING; // The move ordering heuristics in use
+    private final int[][] killers = new int[CELLS + 1][2]; // The last two moves that cut off, for each number of discs
+    private final int[][] history = new int[2][Bitboard.WIDTH * Bitboard.STRIDE]; // Cutoff scores by side and cell
+    private final int[][] moveLists = new int[CELLS + 1][Bitboard.WIDTH]; // Ordered moves, for each number of discs
+    private long cutoffs;          // Nodes where a move failed high
+    private long firstMoveCutoffs; // Nodes where the first move searched failed high
+    private long expandedNodes;    // Nodes whose moves were searched
+    private long movesSearched;    // Moves searched at those nodes
+
+    /**
+     * Constructor for Engine class.
+     * Creates an engine that searches to the default depth with the default evaluator
+     */
+    public Engine() {
+        this(DEFAULT_DEPTH);
+    }
+
+    /**
+     * Constructor for Engine class.
+     * @param maxDepth - the deepest the search will look, in plies
+     */
+    public Engine(int maxDepth) {
+        this(maxDepth, new TranspositionTable());
+    }
+
+    /**
+     * Constructor for Engine class.
+     * @param maxDepth - the deepest the search will look, in plies
+     * @param table - the transposition table to search with, which may be shared with other engines, or null for none
+     */
+    public Engine(int maxDepth, TranspositionTable table) {
+        this(maxDepth, 0, new ThreatEvaluator());
+        this.table = table;
+    }
+
+    /**
+     * Constructor for Engine class.
+     * @param maxDepth - the deepest the search will look, in plies
+     * @param nodeLimit - the number of positions the search may visit, 0 for no limit
+     * @param evaluator - scores positions at the end of the search
+     */
+    public Engine(int maxDepth, long nodeLimit, Evaluator evaluator) {
+        setMaxDepth(maxDepth);
+        setNodeLimit(nodeLimit);
+        setEvaluator(evaluator);
+    }
+
+    /**
+     * search
+     * This method finds the best column for the side to move on a copy of the board
+     * @param board - the board to search from, which is left unchanged
+     * @param player - true if the player is to move, false if the computer is
+     * @return the best column and its score
+     */
+    public SearchResult search(Bitboard board, boolean player) {
+        return search(board, player, generation.get());
+    }
+
+    /**
+     * search
+     * This method finds the best column for the side to move on a copy of the board, unless the search has been
+     * cancelled since the given generation (see cancel)
+     * @param board - the board to search from, which is left unchanged
+     * @param player - true if the player is to move, false if the computer is
+     * @param generation - the engine's generation when the caller decided to search, from getGeneration
+     * @return the best column and its score, or column -1 if the search was cancelled before it finished a depth
+     */
+    public SearchResult search(Bitboard board, boolean player, long generation) {
+        long current = player ? board.getPlayerMask() : board.getComputerMask();
+        long mask = board.getPlayerMask() | board.getComputerMask();
+        return search(current, mask, board.getMoveCount(), generation);
+    }
+
+    /**
+     * search
+     * This method finds the best column for the side to move, deepening one ply at a time
+     * @param current - the mask of the discs belonging to the side to move
+     * @param mask - the mask of every occupied cell
+     * @param moves - the number of discs on the board
+     * @return the best column and its score
+     */
+    public SearchResult search(long current, long mask, int moves) {
+        return search(current, mask, moves, generation.get());
+    }
+
+    /**
+     * search
+     * This method finds the best column for the side to move, deepening one ply at a time, unless the search has been
+     * cancelled since the given generation (see cancel)
+     * @param current - the mask of the discs belonging to the side to move
+     * @param mask - the mask of every occupied cell
+     * @param moves - the number of discs on the board
+     * @param generation - the engine's generation when the caller decided to search, from getGeneration
+     * @return the best column and its score, or column -1 if the search was cancelled before it finished a depth
+     */
+    public SearchResult search(long current, long mask, int moves, long generation) {
+        stopped = false; // A stop before the search starts is not kept
+        if (this.generation.get() != generation) { // Checked after clearing stopped, so a cancel is never missed
+            return new SearchResult(-1, 0, 0, 0);
+        }
+        if (threads == 1 || table == null) {
+            return cancelled(iterate(current, mask, moves, maxDepth), generation);
+        }
+
+        // Start the helpers, search on this thread, then stop the helpers and add up their nodes
+        Future<?>[] running = new Future<?>[helpers.length];
+        for (int i = 0; i < helpers.length; i++) {
+            final Engine helper = helpers[i];
+            final int helperDepth = maxDepth + i % 2; // Every other helper looks one ply further ahead
+            helper.stopped = false;
+            running[i] = pool.submit(() -> helper.iterate(current, mask, moves, helperDepth));
+        }
+        SearchResult result = iterate(current, mask, moves, maxDepth);
+        long totalNodes = result.getNodes();
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i].stopped = true;
+            try {
+                running[i].get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Helper search failed", e.getCause());
+            }
+            totalNodes += helpers[i].nodes;
+        }
+        return cancelled(new SearchResult(result.getColumn(), result.getScore(), result.getDepth(), totalNodes),
+            generation);
+    }
+
+    /**
+     * cancelled
+     * @param result - the result of a search
+     * @param generation - the engine's generation when the search was asked for
+     * @return the result, or column -1 if the search was cancelled before it finished a depth
+     */
+    private SearchResult cancelled(SearchResult result, long generation) {
+        if (result.getDepth() == 0 && this.generation.get() != generation) {
+            return new SearchResult(-1, 0, 0, result.getNodes()); // The quick guess is not wanted
+        }
+        return result;
+    }
+
+    /**
+     * iterate
+     * This method runs the iterative deepening search on this engine's thread
+     * @param current - the mask of the discs belonging to the side to move
+     * @param mask - the mask of every occupied cell
+     * @param moves - the number of discs on the board
+     * @param lastDepth - the deepest iteration to run
+     * @return the best column and its score, or a quick guess at depth 0 if no depth finished (see quickMove)
+     */
+    private SearchResult iterate(long current, long mask, int moves, int lastDepth) {
+        nodes = 0;
+        aborted = false;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        expandedNodes = 0;
+        movesSearched = 0;
+        for (int[] killer : killers) {
+            killer[0] = -1;
+            killer[1] = -1;
+        }
+        for (int[] side : history) {
+            Arrays.fill(side, 0);
+        }
+        int bestColumn = -1;
+        int bestScore = 0;
+        int completedDepth = 0;
+        int remaining = Bitboard.WIDTH * Bitboard.HEIGHT - moves;
+
+        // A winning move is played straight away, the search below assumes the last move never wins
+        long wins = Bitboard.winningCells(current, mask) & (mask + Bitboard.BOTTOM_MASK) & Bitboard.BOARD_MASK;
+        if (wins != 0) {
+            int col = Long.numberOfTrailingZeros(wins) / Bitboard.STRIDE;
+            return new SearchResult(col, winScore(moves + 1), 1, 1);
+        }
+
+        long key = current + mask + Bitboard.BOTTOM_MASK;
+        boolean mirrored = Bitboard.mirror(key) < key; // Stored as its mirror image
+        for (int depth = 1; depth <= Math.min(lastDepth, remaining); depth++) {
+            int alpha = -INFINITY;
+            int column = -1;
+            int first = (ordering & TABLE_MOVE) != 0 ? bestColumn : -1; // The previous depth's best move goes first
+            int[] order = (ordering & CENTRE_ORDER) != 0 ? COLUMN_ORDER : LEFT_TO_RIGHT;
+            for (int i = -1; i < order.length; i++) {
+                int col = i < 0 ? first : order[(i + rootRotation) % order.length];
+                if (col < 0 || (i >= 0 && col == first)) {
+                    continue;
+                }
+                long move = (mask + Bitboard.BOTTOM_MASK) & Bitboard.columnMask(col);
+                if (move == 0) {
+                    continue; // The column is full
+                }
+                int score = -negamax(current ^ mask, mask | move, moves + 1, depth - 1, -INFINITY, -alpha);
+                if (aborted) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    column = col;
+                }
+            }
+            if (!aborted && table != null) {
+                table.store(Bitboard.canonicalKey(key), alpha, depth, TranspositionTable.EXACT,
+                    mirrored ? Bitboard.mirrorColumn(column) : column);
+            }
+            if (aborted) {
+                break; // Keep the result of the last depth that finished, the depth cut short is incomplete
+            }
+            bestColumn = column;
+            bestScore = alpha;
+            completedDepth = depth;
+            if (listener != null) {
+                listener.depthCompleted(new SearchResult(bestColumn, bestScore, completedDepth, nodes));
+            }
+            if (isWinScore(bestScore)) {
+                break; // The game has been solved and searching deeper cannot change the result
+            }
+        }
+        if (completedDepth == 0) {
+            return quickMove(current, mask, key, mirrored);
+        }
+        return new SearchResult(bestColumn, bestScore, completedDepth, nodes);
+    }
+
+    /**
+     * quickMove
+     * This method picks a move without searching, for when the budget ran out before the first depth finished:
+     * the table's best move if it has one, otherwise the first free column from the centre outwards
+     * @param current - the mask of the discs belonging to the side to move
+     * @param mask - the mask of every occupied cell
+     * @param key - the position's key
+     * @param mirrored - true if the position is stored in the table as its mirror image
+     * @return the column, scored by the evaluator, at depth 0, or column -1 if the board is full
+     */
+    private SearchResult quickMove(long current, long mask, long key, boolean mirrored) {
+        int col = -1;
+        if (table != null) {
+            long entry = table.probe(Bitboard.canonicalKey(key));
+            if (entry != 0) {
+                col = TranspositionTable.move(entry);
+                if (col >= 0 && mirrored) {
+                    col = Bitboard.mirrorColumn(col);
+                }
+            }
+        }
+        long possible = (mask + Bitboard.BOTTOM_MASK) & Bitboard.BOARD_MASK;
+        for (int i = 0; i < COLUMN_ORDER.length && (col < 0 || (possible & Bitboard.columnMask(col)) == 0); i++) {
+            col = COLUMN_ORDER[i];
+        }
+        long move = col < 0 ? 0 : possible & Bitboard.columnMask(col);
+        if (move == 0) {
+            return new SearchResult(-1, 0, 0, nodes);
+        }
+        return new SearchResult(col, -evaluator.evaluate(current ^ mask, mask | move), 0, nodes);
+    }
+
+    /**
+     * negamax
+     * This method scores a position for the side to move by searching every reply to the given depth
+     * @param current - the mask of the discs belonging to the side to move
+     * @param mask - the mask of every occupied cell
+     * @param moves - the number of discs on the board
+     * @param depth - the number of plies left to search
+     * @param alpha - the score the side to move is already sure of
+     * @param beta - the score the opponent is already sure of
+     * @return the score of the position, from the side to move's point of view
+     */
+    private int negamax(long current, long mask, int moves, int depth, int alpha, int beta) {
+        nodes++;
+        if ((nodeLimit > 0 && nodes >= nodeLimit) || stopped) {
+            aborted = true;
+            return 0; // The caller throws this result away
+        }
+
+        // The previous move cannot have won, so a winning reply is checked for first
+        long possible = (mask + Bitboard.BOTTOM_MASK) & Bitboard.BOARD_MASK;
+        if ((Bitboard.winningCells(current, mask) & possible) != 0) {
+            return winScore(moves + 1);
+        }
+        if (moves >= Bitboard.WIDTH * Bitboard.HEIGHT - 1) {
+            return 0; // The last disc cannot win, so the game is a draw
+        }
+        if (depth == 0) {
+            return evaluator.evaluate(current, mask);
+        }
+
+        // A result from an earlier search of this position, or of its mirror image, may settle it or narrow the window
+        long key = current + mask + Bitboard.BOTTOM_MASK;
+        long mirrorKey = Bitboard.mirror(key);
+        boolean mirrored = mirrorKey < key; // Stored as its mirror image, so moves are mirrored going in and out
+        if (mirrored) {
+            key = mirrorKey;
+        }
+        int alphaStart = alpha;
+        int tableMove = -1;
+        if (table != null) {
+            long entry = table.probe(key);
+            if (entry != 0) {
+                tableMove = TranspositionTable.move(entry);
+                if (mirrored) {
+                    tableMove = Bitboard.mirrorColumn(tableMove);
+                }
+                int score = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (TranspositionTable.depth(entry) == depth
+                    || (bound == TranspositionTable.EXACT && isWinScore(score)
+                        && WIN_SCORE - Math.abs(score) - moves <= depth)) {
+                    if (bound == TranspositionTable.EXACT) {
+                        return score;
+                    } else if (bound == TranspositionTable.LOWER) {
+                        alpha = Math.max(alpha, score);
+                    } else {
+                        beta = Math.min(beta, score);
+                    }
+                    if (alpha >= beta) {
+                        return score;
+                    }
+                }
+            }
+        }
+
+        int bestScore = -INFINITY;
+        int bestMove = -1;
+        int searched = 0; // Moves searched at this node
+        int[] order = (ordering & CENTRE_ORDER) != 0 ? COLUMN_ORDER : LEFT_TO_RIGHT;
+        int count = order.length;
+        boolean ordered = (ordering & (KILLER_MOVES | HISTORY)) == 0; // If not, the column order is all there is
+        if ((ordering & TABLE_MOVE) == 0) {
+            tableMove = -1;
+        }
+        expandedNodes++;
+        for (int i = -1; i < count; i++) {
+            int col;
+            if (i < 0) {
+                col = tableMove; // The table's best move is tried before the rest
+            } else {
+                if (!ordered) { // The other moves are only ordered once the table move has failed to cut off
+                    order = moveLists[moves];
+                    count = orderMoves(possible, moves, tableMove);
+                    ordered = true;
+                    if (count == 0) {
+                        break;
+                    }
+                }
+                col = order[i];
+                if (col == tableMove) {
+                    continue;
+                }
+            }
+            long move = col < 0 ? 0 : possible & Bitboard.columnMask(col);
+            if (move == 0) {
+                continue; // No table move, or the column is full
+            }
+            int score = -negamax(current ^ mask, mask | move, moves + 1, depth - 1, -beta, -alpha);
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = col;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) { // The opponent will never allow this position
+                cutoffs++;
+                if (searched == 0) {
+                    firstMoveCutoffs++;
+                }
+                searched++;
+                recordCutoff(move, moves, depth);
+                break;
+            }
+            searched++;
+        }
+        movesSearched += searched;
+
+        if (table != null) {
+            int bound = bestScore <= alphaStart ? TranspositionTable.UPPER
+                : bestScore >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(key, bestScore, depth, bound, mirrored ? Bitboard.mirrorColumn(bestMove) : bestMove);
+        }
+        return bestScore;
+    }
+
+    /**
+     * orderMoves
+     * This method lists the legal moves other than the table move in the order to search them, into moveLists[moves]
+     * @param possible - the mask of the cells that can be played
+     * @param moves - the number of discs on the board
+     * @param tableMove - the table move, which has already been searched, or -1 if there is none
+     * @return the number of moves listed
+     */
+    private int orderMoves(long possible, int moves, int tableMove) {
+        int ordering = this.ordering;
+        int[] order = moveLists[moves];
+        int[] killer = killers[moves];
+        int[] sideHistory = history[moves & 1];
+        int[] columns = (ordering & CENTRE_ORDER) != 0 ? COLUMN_ORDER : LEFT_TO_RIGHT;
+        int count = 0;
+        for (int n = 0; n < columns.length; n++) {
+            int col = columns[n];
+            long move = possible & Bitboard.columnMask(col);
+            if (move == 0 || col == tableMove) {
+                continue; // The column is full, or the move has been searched already
+            }
+            int cell = Long.numberOfTrailingZeros(move);
+            int p = 0;
+            if ((ordering & KILLER_MOVES) != 0 && cell == killer[0]) {
+                p = 2 << 22;
+            } else if ((ordering & KILLER_MOVES) != 0 && cell == killer[1]) {
+                p = 1 << 22;
+            } else if ((ordering & HISTORY) != 0) {
+                p = sideHistory[cell];
+            }
+
+            // Each entry packs the priority, the place in the column order (so it breaks ties) and the column
+            int entry = p << 6 | (Bitboard.WIDTH - n) << 3 | col;
+            int i = count++;
+            while (i > 0 && order[i - 1] < entry) {
+                order[i] = order[i - 1];
+                i--;
+            }
+            order[i] = entry;
+        }
+        for (int i = 0; i < count; i++) {
+            order[i] &= 7;
+        }
+        return count;
+    }
+
+    /**
+     * recordCutoff
+     * This method remembers a move that failed high, as a killer move for its ply and in the history of its cell
+     * @param move - the mask of the cell played
+     * @param moves - the number of discs on the board before the move
+     * @param depth - the number of plies that were left to search
+     */
+    private void recordCutoff(long move, int moves, int depth) {
+        int cell = Long.numberOfTrailingZeros(move);
+        int[] killer = killers[moves];
+        if (killer[0] != cell) {
+            killer[1] = killer[0];
+            killer[0] = cell;
+        }
+        int[] sideHistory = history[moves & 1];
+        sideHistory[cell] += depth * depth; // Cutoffs far from the leaves save the most work
+        if (sideHistory[cell] >= HISTORY_LIMIT) {
+            for (int i = 0; i < sideHistory.length; i++) {
+                sideHistory[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * winScore
+     * @param moves - the number of discs on the board once the winning disc is dropped
+     * @return the score for winning with that disc, higher for quicker wins
+     */
+    public static int winScore(int moves) {
+        return WIN_SCORE - moves;
+    }
+
+    /**
+     * isWinScore
+     * @param score - a score returned by the search
+     * @return true if the score means one side can force a win, rather than being an evaluation
+     */
+    public static boolean isWinScore(int score) {
+        return Math.abs(score) >= WIN_SCORE - Bitboard.WIDTH * Bitboard.HEIGHT;
+    }
+
+    /**
+     * getNodes
+     * @return the number of positions visited by the last search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * getCutoffs
+     * @return the number of nodes where a move failed high in the last search, on this engine's thread
+     */
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * getFirstMoveCutoffs
+     * @return the number of nodes where the first move searched failed high in the last search
+     */
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * getExpandedNodes
+     * @return the number of nodes whose moves were searched in the last search, i.e. that were not leaves
+     */
+    public long getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    /**
+     * getMovesSearched
+     * @return the number of moves searched at those nodes in the last search
+     */
+    public long getMovesSearched() {
+        return movesSearched;
+    }
+
+    /**
+     * getFirstMoveCutoffRate
+     * @return the share of cutoffs in the last search that came from the first move searched, 0 to 1
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * getBranchingFactor
+     * @return the average number of moves searched at each node that was not a leaf in the last search
+     */
+    public double getBranchingFactor() {
+        return expandedNodes == 0 ? 0 : (double) movesSearched / expandedNodes;
+    }
+
+    /**
+     * getOrdering
+     * @return the move ordering heuristics in use, a combination of CENTRE_ORDER, TABLE_MOVE, KILLER_MOVES and HISTORY
+     */
+    public int getOrdering() {
+        return ordering;
+    }
+
+    /**
+     * setOrdering
+     * This method switches move ordering heuristics on and off, e.g. to measure what each one saves. Killers and
+     * history save a few nodes but cost more than that in ordering time, so DEFAULT_ORDERING leaves them out.
+     * @param ordering - a combination of CENTRE_ORDER, TABLE_MOVE, KILLER_MOVES and HISTORY, 0 for none
+     */
+    public void setOrdering(int ordering) {
+        if ((ordering & ~ALL_ORDERING) != 0) {
+            throw new IllegalArgumentException("Unknown move ordering " + ordering);
+        }
+        this.ordering = ordering;
+        if (helpers != null) {
+            for (Engine helper : helpers) {
+                helper.ordering = ordering;
+            }
+        }
+    }
+
+    /**
+     * getThreads
+     * @return the number of threads searching each position
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * setThreads
+     * This method sets the number of threads searching each position. The extra threads only help when the engine
+     * has a transposition table, and the evaluator must be safe to call from several threads at once.
+     * @param threads - the number of threads, 1 to search on the caller's thread only
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one search thread is required");
+        }
+        shutdown();
+        this.threads = threads;
+        if (threads > 1) {
+            helpers = new Engine[threads - 1];
+            for (int i = 0; i < helpers.length; i++) {
+                helpers[i] = new Engine(maxDepth, 0, evaluator);
+                helpers[i].table = table;
+                helpers[i].ordering = ordering;
+                helpers[i].rootRotation = i + 1;
+            }
+            pool = Executors.newFixedThreadPool(helpers.length, task -> {
+                Thread thread = new Thread(task, "engine-helper");
+                thread.setDaemon(true); // Helper threads never keep the game running
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * stop
+     * This method asks a search running on another thread to finish as soon as it can. The search returns the best
+     * move of the last depth it finished, or a quick guess at depth 0 if none finished, and helper threads are stopped
+     * with it.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * cancel
+     * This method cancels the search running now and every search asked for with an earlier generation that has not
+     * started yet. Unlike stop, it is not lost if the search has not started, so a caller can cancel work that is
+     * still on its way to the search, e.g. looking in the opening book first.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        stopped = true;
+    }
+
+    /**
+     * getGeneration
+     * @return the number of times the engine has been cancelled, to pass to search
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * getSearchListener
+     * @return the listener told the result of each depth the search finishes, or null if there is none
+     */
+    public SearchListener getSearchListener() {
+        return listener;
+    }
+
+    /**
+     * setSearchListener
+     * @param listener - told the result of each depth the search finishes on this engine's thread, or null for none
+     */
+    public void setSearchListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * shutdown
+     * This method stops the helper threads. The engine goes back to searching on the caller's thread only.
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+            helpers = null;
+        }
+        threads = 1;
+    }
+
+    /**
+     * getMaxDepth
+     * @return the deepest the search will look, in plies
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * setMaxDepth
+     * @param maxDepth - the deepest the search will look, in plies
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Search depth must be at least 1");
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * getNodeLimit
+     * @return the number of positions the search may visit, 0 for no limit
+     */
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    /**
+     * setNodeLimit
+     * @param nodeLimit - the number of positions the search may visit, 0 for no limit
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = Math.max(0, nodeLimit);
+    }
+
+    /**
+     * getTable
+     * @return the transposition table used by the search, or null if it searches without one
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * setTable
+     * @param table - the transposition table to use, or null to search without one
+     */
+    public void setTable(TranspositionTable table) {
+        this.table = table;
+        if (helpers != null) {
+            for (Engine helper : helpers) {
+                helper.table = table;
+            }
+        }
+    }
+
+    /**
+     * getEvaluator
+     * @return the evaluator that scores positions at the end of the search
+     */
+    public Evaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * setEvaluator
+     * @param evaluator - scores positions at the end of the search, the same for a position and its mirror image, as
+     * they share one table entry
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        if (evaluator == null) {
+            throw new IllegalArgumentException("An evaluator is required");
+        }
+        this.evaluator = evaluator;
+        if (helpers != null) {
+            for (Engine helper : helpers) {
+                helper.evaluator = evaluator;
+            }
+        }
+    }
+
+    /**
+     * columnOrder
+     * @return the columns ordered from the centre outwards, which tends to find the best move first
+     */
+    private static int[] columnOrder() {
+        int[] order = new int[Bitboard.WIDTH];
+        for (int i = 0; i < Bitboard.WIDTH; i++) {
+            order[i] = Bitboard.WIDTH / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+        }
+        return order;
+    }
+
+}//End of class Engine
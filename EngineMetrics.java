@@ -0,0 +1,321 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * EngineMetrics
+ * This class records what the computer player is doing: how many moves it has made and how long they took, how much
+ * its searches looked at and how deep they got, and how many games have been started, finished and saved.
+ *
+ * Everything is counted in LongAdders, which spread updates from different threads over separate cells, and only once
+ * per move rather than once per position searched, so recording costs a few nanoseconds on a move that takes
+ * milliseconds (see MetricsBenchmark). The shared default metrics are registered as a JMX MBean under
+ * ConnectFour:type=EngineMetrics, and can be written to the log every few seconds, e.g. with
+ * -Dconnectfour.metrics.dumpSeconds=60 or from a JMX console.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class EngineMetrics implements EngineMetricsMBean {
+    public static final String OBJECT_NAME = "ConnectFour:type=EngineMetrics"; // Name of the MBean in JMX tools
+    private static final Logger LOG = Logger.getLogger(EngineMetrics.class.getName()); // Where the dumps are written
+
+    private static final EngineMetrics DEFAULT_METRICS = createDefault(); // The metrics shared by every game
+
+    private volatile boolean enabled = true; // False to stop recording
+    private final LongAdder searches = new LongAdder();     // Computer moves found by searching
+    private final LongAdder nodes = new LongAdder();        // Positions visited by those searches
+    private final LongAdder searchNanos = new LongAdder();  // Time spent in those searches
+    private final LongAdder depths = new LongAdder();       // The sum of the depths they completed
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0); // The deepest of them
+    private final LongAdder tableHits = new LongAdder();    // Table probes during them that found their position
+    private final LongAdder tableProbes = new LongAdder();  // Table probes during them
+    private final LatencyHistogram moveLatency = new LatencyHistogram(); // Time to choose each computer move
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final LongAdder gamesSaved = new LongAdder();
+    private ScheduledExecutorService dumper; // Writes the metrics to the log, null if they are not being dumped
+    private ScheduledFuture<?> dump;         // The scheduled dump, null if there is none
+    private int dumpIntervalSeconds;         // The number of seconds between dumps, 0 for none
+
+    /**
+     * getDefault
+     * @return the metrics shared by every game, registered with JMX
+     */
+    public static EngineMetrics getDefault() {
+        return DEFAULT_METRICS;
+    }
+
+    /**
+     * createDefault
+     * This method creates the shared metrics when the class is first used, registers them with JMX and starts dumping
+     * them to the log if the connectfour.metrics.dumpSeconds system property is set
+     * @return the shared metrics
+     */
+    private static EngineMetrics createDefault() {
+        EngineMetrics metrics = new EngineMetrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            System.err.println("Error while registering the engine metrics with JMX: " + e.getMessage());
+        }
+        metrics.setDumpIntervalSeconds(Integer.getInteger("connectfour.metrics.dumpSeconds", 0));
+        return metrics;
+    }
+
+    /**
+     * recordMove
+     * @param nanos - the time taken to choose a computer move, in nanoseconds
+     */
+    public void recordMove(long nanos) {
+        if (enabled) {
+            moveLatency.record(nanos);
+        }
+    }
+
+    /**
+     * recordSearch
+     * @param result - the result of a search for a computer move
+     * @param nanos - the time the search took, in nanoseconds
+     * @param hits - the table probes during the search that found their position
+     * @param probes - the table probes during the search
+     */
+    public void recordSearch(SearchResult result, long nanos, long hits, long probes) {
+        if (enabled) {
+            searches.increment();
+            nodes.add(result.getNodes());
+            searchNanos.add(nanos);
+            depths.add(result.getDepth());
+            maxDepth.accumulate(result.getDepth());
+            tableHits.add(hits);
+            tableProbes.add(probes);
+        }
+    }
+
+    /**
+     * recordGameStarted
+     * This method counts a game in which the first move has been made
+     */
+    public void recordGameStarted() {
+        if (enabled) {
+            gamesStarted.increment();
+        }
+    }
+
+    /**
+     * recordGameFinished
+     * This method counts a game that has been won or drawn
+     */
+    public void recordGameFinished() {
+        if (enabled) {
+            gamesFinished.increment();
+        }
+    }
+
+    /**
+     * recordGamesSaved
+     * @param games - the number of games saved to a file
+     */
+    public void recordGamesSaved(int games) {
+        if (enabled) {
+            gamesSaved.add(games);
+        }
+    }
+
+    /**
+     * isEnabled
+     * @return true if metrics are being recorded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * setEnabled
+     * @param enabled - true to record metrics, false to stop recording them
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * getMoves
+     * @return the number of computer moves made
+     */
+    public long getMoves() {
+        return moveLatency.getCount();
+    }
+
+    /**
+     * getSearches
+     * @return the number of computer moves found by searching, rather than from the opening book or endgame database
+     */
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    /**
+     * getNodes
+     * @return the number of positions visited by those searches
+     */
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    /**
+     * getNodesPerSecond
+     * @return the positions visited per second of search time
+     */
+    public double getNodesPerSecond() {
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : nodes.sum() * 1e9 / nanos;
+    }
+
+    /**
+     * getAverageDepth
+     * @return the mean depth the searches completed
+     */
+    public double getAverageDepth() {
+        long count = searches.sum();
+        return count == 0 ? 0 : (double) depths.sum() / count;
+    }
+
+    /**
+     * getMaxDepth
+     * @return the deepest depth a search completed
+     */
+    public long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    /**
+     * getTableHitRate
+     * @return the fraction of transposition table probes during the searches that found their position
+     */
+    public double getTableHitRate() {
+        long probes = tableProbes.sum();
+        return probes == 0 ? 0 : (double) tableHits.sum() / probes;
+    }
+
+    /**
+     * getMoveLatencyP50Millis
+     * @return the median time taken to choose a computer move
+     */
+    public double getMoveLatencyP50Millis() {
+        return moveLatency.percentile(50) / 1e6;
+    }
+
+    /**
+     * getMoveLatencyP95Millis
+     * @return the 95th percentile of the time taken to choose a computer move
+     */
+    public double getMoveLatencyP95Millis() {
+        return moveLatency.percentile(95) / 1e6;
+    }
+
+    /**
+     * getMoveLatencyP99Millis
+     * @return the 99th percentile of the time taken to choose a computer move
+     */
+    public double getMoveLatencyP99Millis() {
+        return moveLatency.percentile(99) / 1e6;
+    }
+
+    /**
+     * getMoveLatencyMaxMillis
+     * @return the longest time taken to choose a computer move
+     */
+    public double getMoveLatencyMaxMillis() {
+        return moveLatency.getMax() / 1e6;
+    }
+
+    /**
+     * getGamesStarted
+     * @return the number of games in which a first move has been made
+     */
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    /**
+     * getGamesFinished
+     * @return the number of games that have been won or drawn
+     */
+    public long getGamesFinished() {
+        return gamesFinished.sum();
+    }
+
+    /**
+     * getGamesSaved
+     * @return the number of games saved to a file
+     */
+    public long getGamesSaved() {
+        return gamesSaved.sum();
+    }
+
+    /**
+     * getDumpIntervalSeconds
+     * @return the number of seconds between dumps to the log, 0 if the metrics are not being dumped
+     */
+    public synchronized int getDumpIntervalSeconds() {
+        return dumpIntervalSeconds;
+    }
+
+    /**
+     * setDumpIntervalSeconds
+     * This method starts, changes or stops writing the metrics to the log at a fixed interval
+     * @param seconds - the number of seconds between dumps to the log, 0 to stop dumping
+     */
+    public synchronized void setDumpIntervalSeconds(int seconds) {
+        if (dump != null) {
+            dump.cancel(false);
+            dump = null;
+        }
+        dumpIntervalSeconds = Math.max(0, seconds);
+        if (dumpIntervalSeconds > 0) {
+            if (dumper == null) {
+                dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+                    Thread thread = new Thread(task, "engine-metrics");
+                    thread.setDaemon(true); // Dumping never keeps the game running
+                    return thread;
+                });
+            }
+            dump = dumper.scheduleAtFixedRate(() -> LOG.info(toString()), dumpIntervalSeconds, dumpIntervalSeconds,
+                TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * reset
+     * Sets every metric back to zero
+     */
+    public void reset() {
+        searches.reset();
+        nodes.reset();
+        searchNanos.reset();
+        depths.reset();
+        maxDepth.reset();
+        tableHits.reset();
+        tableProbes.reset();
+        moveLatency.reset();
+        gamesStarted.reset();
+        gamesFinished.reset();
+        gamesSaved.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("moves %d, searches %d, nodes %d (%.0f/s), depth %.1f (max %d), table hits %.1f%%, "
+            + "move ms p50 %.2f p95 %.2f p99 %.2f max %.2f, games started %d finished %d saved %d",
+            getMoves(), getSearches(), getNodes(), getNodesPerSecond(), getAverageDepth(), getMaxDepth(),
+            getTableHitRate() * 100, getMoveLatencyP50Millis(), getMoveLatencyP95Millis(), getMoveLatencyP99Millis(),
+            getMoveLatencyMaxMillis(), getGamesStarted(), getGamesFinished(), getGamesSaved());
+    }
+
+}//End of class EngineMetrics
@@ -0,0 +1,124 @@
+/**
+ * EngineMetricsMBean
+ * The management interface of EngineMetrics, which JMX tools such as JConsole or VisualVM show under
+ * ConnectFour:type=EngineMetrics. Durations are in milliseconds and rates are fractions from 0 to 1.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public interface EngineMetricsMBean {
+
+    /**
+     * isEnabled
+     * @return true if metrics are being recorded
+     */
+    boolean isEnabled();
+
+    /**
+     * setEnabled
+     * @param enabled - true to record metrics, false to stop recording them
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * getMoves
+     * @return the number of computer moves made
+     */
+    long getMoves();
+
+    /**
+     * getSearches
+     * @return the number of computer moves found by searching, rather than from the opening book or endgame database
+     */
+    long getSearches();
+
+    /**
+     * getNodes
+     * @return the number of positions visited by those searches
+     */
+    long getNodes();
+
+    /**
+     * getNodesPerSecond
+     * @return the positions visited per second of search time
+     */
+    double getNodesPerSecond();
+
+    /**
+     * getAverageDepth
+     * @return the mean depth the searches completed
+     */
+    double getAverageDepth();
+
+    /**
+     * getMaxDepth
+     * @return the deepest depth a search completed
+     */
+    long getMaxDepth();
+
+    /**
+     * getTableHitRate
+     * @return the fraction of transposition table probes during the searches that found their position
+     */
+    double getTableHitRate();
+
+    /**
+     * getMoveLatencyP50Millis
+     * @return the median time taken to choose a computer move
+     */
+    double getMoveLatencyP50Millis();
+
+    /**
+     * getMoveLatencyP95Millis
+     * @return the 95th percentile of the time taken to choose a computer move
+     */
+    double getMoveLatencyP95Millis();
+
+    /**
+     * getMoveLatencyP99Millis
+     * @return the 99th percentile of the time taken to choose a computer move
+     */
+    double getMoveLatencyP99Millis();
+
+    /**
+     * getMoveLatencyMaxMillis
+     * @return the longest time taken to choose a computer move
+     */
+    double getMoveLatencyMaxMillis();
+
+    /**
+     * getGamesStarted
+     * @return the number of games in which a first move has been made
+     */
+    long getGamesStarted();
+
+    /**
+     * getGamesFinished
+     * @return the number of games that have been won or drawn
+     */
+    long getGamesFinished();
+
+    /**
+     * getGamesSaved
+     * @return the number of games saved to a file
+     */
+    long getGamesSaved();
+
+    /**
+     * getDumpIntervalSeconds
+     * @return the number of seconds between dumps to the log, 0 if the metrics are not being dumped
+     */
+    int getDumpIntervalSeconds();
+
+    /**
+     * setDumpIntervalSeconds
+     * @param seconds - the number of seconds between dumps to the log, 0 to stop dumping
+     */
+    void setDumpIntervalSeconds(int seconds);
+
+    /**
+     * reset
+     * Sets every metric back to zero
+     */
+    void reset();
+
+}//End of interface EngineMetricsMBean
@@ -0,0 +1,20 @@
+/**
+ * Evaluator
+ * This interface scores a position that the search engine has stopped looking into.
+ * Plug a different evaluator into the Engine to change how the computer judges unfinished positions.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public interface Evaluator {
+
+    /**
+     * evaluate
+     * This method scores a position from the point of view of the side about to move.
+     * Scores must stay well inside Engine.WIN_SCORE so that they are never mistaken for a won or lost game.
+     * @param current - the mask of the discs belonging to the side about to move
+     * @param mask - the mask of every occupied cell
+     * @return the score, positive when the side about to move is better off
+     */
+    int evaluate(long current, long mask);
+
+}//End of interface Evaluator
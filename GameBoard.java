@@ -0,0 +1,142 @@
+/**
+ * GameBoard
+ * This interface is the board a game is played on, whatever its size and however many discs in a row win.
+ * The standard 7x6 board with four in a row is a Bitboard, which the search engine and opening book work on. Every
+ * other size is a GridBoard.
+ *
+ * Rows are numbered as in Slot, row 0 is the top row.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public interface GameBoard {
+
+    /**
+     * create
+     * @param columns - the number of columns
+     * @param rows - the number of rows
+     * @param connect - the number of discs in a row that win the game
+     * @return an empty board of that size, a Bitboard for the standard game
+     */
+    static GameBoard create(int columns, int rows, int connect) {
+        if (columns == Bitboard.WIDTH && rows == Bitboard.HEIGHT && connect == Bitboard.CONNECT) {
+            return new Bitboard();
+        }
+        return new GridBoard(columns, rows, connect);
+    }
+
+    /**
+     * getColumns
+     * @return the number of columns on the board
+     */
+    int getColumns();
+
+    /**
+     * getRows
+     * @return the number of rows on the board
+     */
+    int getRows();
+
+    /**
+     * getConnect
+     * @return the number of discs in a row that win the game
+     */
+    int getConnect();
+
+    /**
+     * copy
+     * @return an independent copy of the board, which can be changed without affecting this one
+     */
+    GameBoard copy();
+
+    /**
+     * canPlay
+     * @param col - the selected column
+     * @return true if the column is on the board and is not full
+     */
+    boolean canPlay(int col);
+
+    /**
+     * play
+     * This method drops a disc into the selected column
+     * @param col - the selected column
+     * @param player - a Boolean value that determines whether it is a player/computer move
+     * @return the row (counted from the top) where the disc landed
+     */
+    int play(int col, boolean player);
+
+    /**
+     * unplay
+     * This method removes the top disc from the selected column
+     * @param col - the selected column
+     * @return the row (counted from the top) that has been emptied, or -1 if the column was already empty
+     */
+    int unplay(int col);
+
+    /**
+     * isWinningMove
+     * @param col - the selected column
+     * @param player - a Boolean value that determines whether it is a player/computer move
+     * @return true if dropping a disc in the column would win the game
+     */
+    boolean isWinningMove(int col, boolean player);
+
+    /**
+     * hasWon
+     * @param player - true to check the player's discs, false to check the computer's
+     * @return true if that side has enough discs in a row anywhere on the board
+     */
+    boolean hasWon(boolean player);
+
+    /**
+     * checkWinAt
+     * This method checks only the lines through the top disc of a column, which is all that needs checking after a
+     * disc has been dropped there
+     * @param col - the column the last disc was dropped into
+     * @return the winner and winning line, a draw if the board is full, or WinResult.NONE
+     */
+    WinResult checkWinAt(int col);
+
+    /**
+     * findWin
+     * This method checks the whole board, for when the last move is not known
+     * @return the winner and winning line, a draw if the board is full, or WinResult.NONE
+     */
+    WinResult findWin();
+
+    /**
+     * isFull
+     * @return true if every cell on the board is occupied
+     */
+    boolean isFull();
+
+    /**
+     * getState
+     * @param col - the column of the cell
+     * @param row - the row of the cell
+     * @return PLAYERMOVE, COMPUTERMOVE or EMPTYSLOT
+     */
+    String getState(int col, int row);
+
+    /**
+     * setState
+     * This method writes a state directly into a single cell, for callers that edit the board through Slot
+     * @param col - the column of the cell
+     * @param row - the row of the cell
+     * @param state - PLAYERMOVE, COMPUTERMOVE or EMPTYSLOT
+     */
+    void setState(int col, int row, String state);
+
+    /**
+     * getHeight
+     * @param col - the selected column
+     * @return the number of discs in the column
+     */
+    int getHeight(int col);
+
+    /**
+     * getMoveCount
+     * @return the number of discs on the board
+     */
+    int getMoveCount();
+
+}//End of interface GameBoard
@@ -0,0 +1,323 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * GameCodec
+ * This class saves and loads games in a compact binary format shared by every user interface.
+ * A game is stored as its list of moves, so a save is a few dozen bytes instead of a whole object graph.
+ *
+ * Record layout (big-endian):
+ *   magic "C4GM" (4 bytes), version (1 byte), board width (1 byte), board height (1 byte), move count (2 bytes),
+ *   one byte per move in the order played (the column, plus 0x80 for a player move), CRC32 of everything before it
+ * Games on other boards than the standard 7x6 four in a row are saved as version 2, which has the number of discs in
+ * a row needed to win (1 byte) after the board height. Standard games stay version 1, so older versions still load them.
+ *
+ * A save file holds one record, an archive holds any number of records one after the other.
+ * Files that do not start with the magic number are loaded as old Java serialized ConnectFour saves, or as text game
+ * records (see GameRecordWriter), which are also what save writes for file names ending in .c4r.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class GameCodec {
+    public static final int MAGIC = 0x4334474D; // "C4GM"
+    private static final int SERIALIZED_MAGIC = 0xACED; // The start of a Java serialization stream
+    public static final int VERSION = 1;
+    public static final int SIZED_VERSION = 2;  // Adds the number in a row, for games on other boards
+    private static final int HEADER_SIZE = 9;   // Magic, version, width, height and move count
+    private static final int CHECKSUM_SIZE = 4;
+    private static final int PLAYER_FLAG = 0x80; // Marks a move made by the player
+
+    /**
+     * encodedSize
+     * @param game - the game
+     * @return the number of bytes encode will write for the game
+     */
+    public static int encodedSize(ConnectFour game) {
+        return HEADER_SIZE + (game.getBitboard() != null ? 0 : 1) + game.getHistory().size() + CHECKSUM_SIZE;
+    }
+
+    /**
+     * encode
+     * @param game - the game to encode
+     * @return the encoded game
+     */
+    public static byte[] encode(ConnectFour game) {
+        ByteBuffer out = ByteBuffer.allocate(encodedSize(game));
+        encode(game, out);
+        return out.array();
+    }
+
+    /**
+     * encode
+     * This method writes one game record at the buffer's position
+     * @param game - the game to encode
+     * @param out - the buffer to write to, which must have encodedSize bytes remaining
+     */
+    public static void encode(ConnectFour game, ByteBuffer out) {
+        MoveHistory history = game.getHistory();
+        GameBoard board = game.getBoard();
+        boolean standard = game.getBitboard() != null;
+        int start = out.position();
+        out.putInt(MAGIC).put((byte) (standard ? VERSION : SIZED_VERSION))
+            .put((byte) board.getColumns()).put((byte) board.getRows());
+        if (!standard) {
+            out.put((byte) board.getConnect());
+        }
+        out.putShort((short) history.size());
+
+        for (int i = 0; i < history.size(); i++) { // The history knows who made each move
+            out.put((byte) (history.getColumn(i) | (history.isPlayer(i) ? PLAYER_FLAG : 0)));
+        }
+        out.putInt((int) checksum(out, start, out.position()));
+    }
+
+    /**
+     * decode
+     * This method reads one game record from the buffer's position, checking it fully before creating the game
+     * @param in - the buffer to read from
+     * @return the decoded game
+     * @throws IOException if the record is damaged or is for a different board
+     */
+    public static ConnectFour decode(ByteBuffer in) throws IOException {
+        int start = in.position();
+        if (in.remaining() < HEADER_SIZE + CHECKSUM_SIZE || in.getInt() != MAGIC) {
+            throw new IOException("Not a saved Connect Four game");
+        }
+        int version = in.get();
+        if (version != VERSION && version != SIZED_VERSION) {
+            throw new IOException("Unsupported save version " + version);
+        }
+        int width = in.get() & 0xFF;
+        int height = in.get() & 0xFF;
+        int connect = version == SIZED_VERSION ? in.get() & 0xFF : Bitboard.CONNECT;
+        if (width > GridBoard.MAX_SIZE || height > GridBoard.MAX_SIZE) {
+            throw new IOException("Saved game is for a " + width + "x" + height + " board");
+        }
+        int count = in.getShort() & 0xFFFF;
+        if (count > width * height || in.remaining() < count + CHECKSUM_SIZE) {
+            throw new IOException("Saved game is truncated");
+        }
+        int movesStart = in.position();
+        in.position(movesStart + count);
+        if (in.getInt() != (int) checksum(in, start, movesStart + count)) {
+            throw new IOException("Saved game is damaged (checksum mismatch)");
+        }
+
+        ConnectFour game;
+        try {
+            game = new ConnectFour(width, height, connect);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Saved game has an unsupported board: " + e.getMessage());
+        }
+        for (int i = 0; i < count; i++) {
+            int move = in.get(movesStart + i) & 0xFF;
+            int col = move & ~PLAYER_FLAG;
+            if (!game.getBoard().canPlay(col)) {
+                throw new IOException("Saved game has an illegal move in column " + col);
+            }
+            game.replayMove(col, (move & PLAYER_FLAG) != 0);
+        }
+        return game;
+    }
+
+    /**
+     * save
+     * This method writes a game to a file, as a text game record if the file name ends in .c4r
+     * @param game - the game to save
+     * @param fileName - the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(ConnectFour game, String fileName) throws IOException {
+        if (fileName.endsWith(GameRecordWriter.EXTENSION)) {
+            try (GameRecordWriter writer = new GameRecordWriter(fileName)) {
+                writer.write(game);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("The game cannot be written as a game record: " + e.getMessage());
+            }
+        } else {
+            write(ByteBuffer.wrap(encode(game)), fileName);
+        }
+        EngineMetrics.getDefault().recordGamesSaved(1);
+    }
+
+    /**
+     * load
+     * This method reads a game from a file, in the binary format, as an old Java serialized save or as the first game
+     * of a text game record file
+     * @param fileName - the file to read
+     * @return the loaded game
+     * @throws IOException if the file cannot be read or is not a saved game
+     */
+    public static ConnectFour load(String fileName) throws IOException {
+        ByteBuffer in = read(fileName);
+        if (in.remaining() >= 4 && in.getInt(0) == MAGIC) {
+            return decode(in);
+        } else if (in.remaining() >= 2 && (in.getShort(0) & 0xFFFF) == SERIALIZED_MAGIC) {
+            return loadSerialized(in.array());
+        }
+        GameRecordReader reader = new GameRecordReader(Channels.newChannel(new ByteArrayInputStream(in.array())));
+        if (!reader.next()) {
+            throw new IOException("Not a saved Connect Four game");
+        }
+        return reader.toGame();
+    }
+
+    /**
+     * saveAll
+     * This method writes many games to one archive file in a single write
+     * @param games - the games to save
+     * @param fileName - the archive file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void saveAll(List<ConnectFour> games, String fileName) throws IOException {
+        int size = 0;
+        for (ConnectFour game : games) {
+            size += encodedSize(game);
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        for (ConnectFour game : games) {
+            encode(game, out);
+        }
+        out.flip();
+        write(out, fileName);
+        EngineMetrics.getDefault().recordGamesSaved(games.size());
+    }
+
+    /**
+     * loadAll
+     * This method reads every game from an archive file
+     * @param fileName - the archive file to read
+     * @return the games in the order they were saved
+     * @throws IOException if the file cannot be read or a record is damaged
+     */
+    public static List<ConnectFour> loadAll(String fileName) throws IOException {
+        ByteBuffer in = read(fileName);
+        List<ConnectFour> games = new ArrayList<>();
+        while (in.hasRemaining()) {
+            games.add(decode(in));
+        }
+        return games;
+    }
+
+    /**
+     * loadSerialized
+     * This method loads a game saved with Java serialization by earlier versions of the game
+     * @param bytes - the contents of the save file
+     * @return the loaded game
+     * @throws IOException if the bytes are not a serialized ConnectFour game
+     */
+    private static ConnectFour loadSerialized(byte[] bytes) throws IOException {
+        try (ObjectInputStream in = new LegacyInputStream(new ByteArrayInputStream(bytes))) {
+            Object loaded = in.readObject();
+            if (!(loaded instanceof ConnectFour)) {
+                throw new IOException("Not a saved Connect Four game");
+            }
+            return (ConnectFour) loaded;
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Not a saved Connect Four game: " + e.getMessage());
+        }
+    }
+
+    /**
+     * LegacyInputStream
+     * An ObjectInputStream that also accepts saves written by earlier builds of the game classes with a different
+     * serialVersionUID, as long as they serialized exactly the same fields as the current classes do.
+     */
+    private static class LegacyInputStream extends ObjectInputStream {
+        LegacyInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            ObjectStreamClass stream = super.readClassDescriptor();
+            ObjectStreamClass local = null;
+            if (stream.getName().equals("ConnectFour")) {
+                local = ObjectStreamClass.lookup(ConnectFour.class);
+            } else if (stream.getName().equals("Slot")) {
+                local = ObjectStreamClass.lookup(Slot.class);
+            }
+            if (local != null && local.getSerialVersionUID() != stream.getSerialVersionUID()
+                    && sameFields(stream.getFields(), local.getFields())) {
+                return local; // Same layout under an older serialVersionUID
+            }
+            return stream;
+        }
+
+        /**
+         * sameFields
+         * @return true if both descriptors list the same fields with the same types, which they keep in a fixed order
+         */
+        private static boolean sameFields(ObjectStreamField[] stream, ObjectStreamField[] local) {
+            if (stream.length != local.length) {
+                return false;
+            }
+            for (int i = 0; i < stream.length; i++) {
+                if (!stream[i].getName().equals(local[i].getName()) || stream[i].getTypeCode() != local[i].getTypeCode()
+                        || !Objects.equals(stream[i].getTypeString(), local[i].getTypeString())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * write
+     * @param out - the bytes to write, from position to limit
+     * @param fileName - the file to replace
+     */
+    private static void write(ByteBuffer out, String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    /**
+     * read
+     * @param fileName - the file to read
+     * @return a heap buffer holding the whole file
+     */
+    private static ByteBuffer read(String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(fileName + " is too large");
+            }
+            ByteBuffer in = ByteBuffer.allocate((int) channel.size());
+            while (in.hasRemaining() && channel.read(in) >= 0) {
+                // Keep reading until the buffer is full
+            }
+            in.flip();
+            return in;
+        }
+    }
+
+    /**
+     * checksum
+     * @return the CRC32 of the buffer's bytes between the two positions
+     */
+    private static long checksum(ByteBuffer buffer, int from, int to) {
+        CRC32 crc = new CRC32();
+        for (int i = from; i < to; i++) {
+            crc.update(buffer.get(i));
+        }
+        return crc.getValue();
+    }
+
+}//End of class GameCodec
@@ -0,0 +1,80 @@
+/**
+ * GameEvent
+ * This class describes one change to a game: a disc placed or taken back, or the whole board reset or loaded.
+ * Changes to single discs say which cell changed, so a listener only has to redraw that cell.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class GameEvent {
+    public static final int MOVE_PLACED = 0; // A disc was dropped into a cell
+    public static final int MOVE_UNDONE = 1; // A disc was taken back out of a cell
+    public static final int GAME_RESET = 2;  // The board was cleared
+    public static final int GAME_LOADED = 3; // A saved game replaced the board
+
+    private final int type;        // One of the types above
+    private final int column;      // The cell's column, -1 for a reset or load
+    private final int row;         // The cell's row counted from the top, -1 for a reset or load
+    private final boolean player;  // True if the disc is the player's
+
+    /**
+     * Constructor for GameEvent class.
+     * @param type - MOVE_PLACED, MOVE_UNDONE, GAME_RESET or GAME_LOADED
+     * @param column - the cell's column, -1 for a reset or load
+     * @param row - the cell's row counted from the top, -1 for a reset or load
+     * @param player - true if the disc placed or taken back is the player's
+     */
+    public GameEvent(int type, int column, int row, boolean player) {
+        this.type = type;
+        this.column = column;
+        this.row = row;
+        this.player = player;
+    }
+
+    /**
+     * getType
+     * @return MOVE_PLACED, MOVE_UNDONE, GAME_RESET or GAME_LOADED
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * getColumn
+     * @return the column of the cell that changed, -1 if the whole board changed
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * getRow
+     * @return the row of the cell that changed, counted from the top, -1 if the whole board changed
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * isPlayer
+     * @return true if the disc placed or taken back is the player's, false if it is the computer's
+     */
+    public boolean isPlayer() {
+        return player;
+    }
+
+    /**
+     * isCellChange
+     * @return true if one cell changed, false if the whole board was reset or loaded
+     */
+    public boolean isCellChange() {
+        return type == MOVE_PLACED || type == MOVE_UNDONE;
+    }
+
+    @Override
+    public String toString() {
+        String[] names = {"placed", "undone", "reset", "loaded"};
+        return isCellChange() ? names[type] + " " + (player ? "player" : "computer") + " disc at column " + column
+            + ", row " + row : names[type];
+    }
+
+}//End of class GameEvent
@@ -0,0 +1,21 @@
+import java.util.List;
+
+/**
+ * GameListener
+ * This interface is told about changes to a ConnectFour game, e.g. to redraw the cells that changed.
+ * The changes made by one action, such as a move and the reply to it or an undo of several moves, come together in one
+ * call (see ConnectFour.beginBatch). Listeners are called on the thread that changed the game.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public interface GameListener {
+
+    /**
+     * gameChanged
+     * This method is called after the game has changed
+     * @param game - the game that changed
+     * @param events - the changes in the order they were made, which must not be changed
+     */
+    void gameChanged(ConnectFour game, List<GameEvent> events);
+
+}//End of interface GameListener
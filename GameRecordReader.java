@@ -0,0 +1,452 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * GameRecordReader
+ * This class reads text game records (see GameRecordWriter) one game at a time, for game databases of any size.
+ * The file is read through one reused buffer and each game's moves are replayed into one reused position, so reading
+ * creates no objects per game and memory use stays the same however large the file is. Each record is checked as it
+ * is replayed: every move must be legal, no move may follow a win and the result must match the moves.
+ *
+ * Use next() to move on to each game in turn, then read its moves and final position, copy it to a GameRecordWriter,
+ * or turn it into a ConnectFour game with toGame().
+ *
+ * Run with: java GameRecordReader [file] to count the games and results in a game record file
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class GameRecordReader implements Closeable {
+    private static final byte[] COLUMN_VALUES = columnValues(); // The column of each move character, -1 if none
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(GameRecordWriter.BUFFER_SIZE); // Unread bytes of the file
+    private final byte[] bytes = buffer.array();
+    private boolean endOfInput;      // True once the channel has no more bytes
+    private boolean longLine;        // True if the start of the line being read was dropped for not fitting the buffer
+    private final byte[] columns = new byte[GridBoard.MAX_SIZE * GridBoard.MAX_SIZE]; // The moves of the record
+    private int moveCount;           // The number of moves in the record
+    private boolean playerFirst;     // True if the player made the first move
+    private char result;             // The result of the record, e.g. GameRecordWriter.PLAYER_WINS
+    private GameBoard position = new Bitboard(); // The position after the record's moves, reused for every record
+    private int played;              // The number of moves on the position, which may be fewer after a bad record
+    private long lineNumber;         // The line the current record is on
+    private long count;              // Records read so far
+
+    /**
+     * Constructor for GameRecordReader class.
+     * @param fileName - the game record file to read
+     * @throws IOException if the file cannot be opened
+     */
+    public GameRecordReader(String fileName) throws IOException {
+        this(FileChannel.open(Paths.get(fileName), StandardOpenOption.READ));
+    }
+
+    /**
+     * Constructor for GameRecordReader class.
+     * @param channel - where to read the records from, e.g. a file or a pipe, which close() closes
+     */
+    public GameRecordReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.limit(0); // Nothing read yet
+    }
+
+    /**
+     * next
+     * This method moves on to the next game record and replays its moves. A record that is not valid is skipped once
+     * the error has been thrown, so reading can carry on with the next one.
+     * @return true if there was another record, false at the end of the file
+     * @throws IOException if the file cannot be read or the record is not valid
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            int end = lineEnd();
+            if (end < 0) {
+                if (fill()) {
+                    continue;
+                } else if (!buffer.hasRemaining()) {
+                    return false;
+                }
+                end = buffer.limit(); // The last line has no newline
+            }
+            int start = buffer.position();
+            buffer.position(Math.min(end + 1, buffer.limit()));
+            lineNumber++;
+            if (longLine) {
+                longLine = false;
+                throw error("is longer than " + buffer.capacity() + " bytes");
+            }
+            if (end > start && bytes[end - 1] == '\r') {
+                end--;
+            }
+            if (end > start && bytes[start] != '#') {
+                parse(start, end);
+                count++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * getMoveCount
+     * @return the number of moves in the current record
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * getColumn
+     * @param index - the move, 0 for the first move
+     * @return the column the move was played in, counting from 0
+     */
+    public int getColumn(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException("Move " + index + " of " + moveCount);
+        }
+        return columns[index];
+    }
+
+    /**
+     * isPlayer
+     * @param index - the move, 0 for the first move
+     * @return true if the player made the move, false if the computer did
+     */
+    public boolean isPlayer(int index) {
+        return playerFirst == (index % 2 == 0);
+    }
+
+    /**
+     * isPlayerFirst
+     * @return true if the player made the first move of the current record
+     */
+    public boolean isPlayerFirst() {
+        return playerFirst;
+    }
+
+    /**
+     * getResult
+     * @return the result of the current record, e.g. GameRecordWriter.PLAYER_WINS or GameRecordWriter.UNFINISHED
+     */
+    public char getResult() {
+        return result;
+    }
+
+    /**
+     * getPosition
+     * @return the position after the current record's moves, which is reused by the next record so must not be kept
+     */
+    public GameBoard getPosition() {
+        return position;
+    }
+
+    /**
+     * getLineNumber
+     * @return the line of the file the current record is on, counting from 1
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * getCount
+     * @return the number of records read so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * toGame
+     * This method creates a ConnectFour game from the current record, for playing on or saving
+     * @return the game, with the record's moves in its move history
+     */
+    public ConnectFour toGame() {
+        ConnectFour game = new ConnectFour(position.getColumns(), position.getRows(), position.getConnect());
+        for (int i = 0; i < moveCount; i++) {
+            game.replayMove(columns[i], isPlayer(i));
+        }
+        return game;
+    }
+
+    /**
+     * close
+     * This method closes the channel
+     * @throws IOException if the channel cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * importAll
+     * This method reads every game in a game record file
+     * @param fileName - the file to read
+     * @return the games in the order they are in the file
+     * @throws IOException if the file cannot be read or a record is not valid
+     */
+    public static List<ConnectFour> importAll(String fileName) throws IOException {
+        List<ConnectFour> games = new ArrayList<>();
+        try (GameRecordReader reader = new GameRecordReader(fileName)) {
+            while (reader.next()) {
+                games.add(reader.toGame());
+            }
+        }
+        return games;
+    }
+
+    /**
+     * lineEnd
+     * @return the index of the next newline in the buffer, or -1 if the buffer holds no whole line
+     */
+    private int lineEnd() {
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * fill
+     * This method moves the unread bytes to the start of the buffer and reads more after them. A line that fills the
+     * whole buffer is longer than any valid record, so its start is dropped and it is reported once its end is read.
+     * @return true if more bytes may have been read, false at the end of the input
+     */
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            longLine = true;
+        }
+        int read = channel.read(buffer);
+        buffer.flip();
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * parse
+     * This method reads one record's fields and replays its moves into the position
+     * @param start - the index of the record's first byte in the buffer
+     * @param end - the index just after the record's last byte
+     */
+    private void parse(int start, int end) throws IOException {
+        int movesEnd = indexOf(' ', start, end);
+        if (movesEnd < 0) {
+            throw error("has no result");
+        }
+        int resultEnd = indexOf(' ', movesEnd + 1, end);
+        if (resultEnd < 0) {
+            resultEnd = end;
+        }
+        if (resultEnd != movesEnd + 2) {
+            throw error("has a result that is not one character");
+        }
+        result = (char) bytes[movesEnd + 1];
+        playerFirst = true;
+        int width = Bitboard.WIDTH;
+        int height = Bitboard.HEIGHT;
+        int connect = Bitboard.CONNECT;
+        for (int field = resultEnd + 1; field < end; ) { // The optional name=value fields
+            int fieldEnd = indexOf(' ', field, end);
+            if (fieldEnd < 0) {
+                fieldEnd = end;
+            }
+            if (startsWith("first=", field, fieldEnd)) {
+                if (fieldEnd != field + 7 || (bytes[field + 6] != 'x' && bytes[field + 6] != 'o')) {
+                    throw error("has a first field that is not x or o");
+                }
+                playerFirst = bytes[field + 6] == 'x';
+            } else if (startsWith("board=", field, fieldEnd)) {
+                int x = indexOf('x', field + 6, fieldEnd);
+                int slash = indexOf('/', field + 6, fieldEnd);
+                if (x < 0 || slash < x) {
+                    throw error("has a board field that is not like board=19x19/5");
+                }
+                width = number(field + 6, x);
+                height = number(x + 1, slash);
+                connect = number(slash + 1, fieldEnd);
+            }
+            field = fieldEnd + 1;
+        }
+
+        resetPosition(width, height, connect);
+        moveCount = movesEnd - start;
+        if (moveCount == 1 && bytes[start] == GameRecordWriter.NO_MOVES) {
+            moveCount = 0;
+        }
+        if (moveCount > columns.length) {
+            throw error("has more moves than any board holds");
+        }
+        boolean player = playerFirst;
+        boolean won = false;
+        for (int i = 0; i < moveCount; i++) {
+            int c = bytes[start + i];
+            int col = c >= 0 && c < COLUMN_VALUES.length ? COLUMN_VALUES[c] : -1;
+            if (col < 0 || col >= width || !position.canPlay(col)) {
+                throw error("has an illegal move " + (char) c + " at move " + (i + 1));
+            } else if (won) {
+                throw error("has a move after the game was won, at move " + (i + 1));
+            }
+            columns[i] = (byte) col;
+            won = position.isWinningMove(col, player);
+            position.play(col, player);
+            played++;
+            player = !player;
+        }
+        char actual = won ? (player ? GameRecordWriter.COMPUTER_WINS : GameRecordWriter.PLAYER_WINS)
+            : position.isFull() ? GameRecordWriter.DRAW : GameRecordWriter.UNFINISHED;
+        if (result != actual) {
+            throw error("has the result " + result + " but its moves give " + actual);
+        }
+    }
+
+    /**
+     * resetPosition
+     * This method takes the moves of the last record off the position, or creates a position for a new board size
+     * @param width - the number of columns of the next record's board
+     * @param height - the number of rows
+     * @param connect - the number of discs in a row that win
+     */
+    private void resetPosition(int width, int height, int connect) throws IOException {
+        if (width == position.getColumns() && height == position.getRows() && connect == position.getConnect()) {
+            for (int i = played - 1; i >= 0; i--) {
+                position.unplay(columns[i]);
+            }
+        } else {
+            try {
+                position = GameBoard.create(width, height, connect);
+            } catch (IllegalArgumentException e) {
+                throw error("has an unsupported board: " + e.getMessage());
+            }
+        }
+        played = 0;
+    }
+
+    /**
+     * indexOf
+     * @return the index of the first byte b between start and end, or -1 if there is none
+     */
+    private int indexOf(char b, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * startsWith
+     * @return true if the bytes between start and end begin with the text
+     */
+    private boolean startsWith(String text, int start, int end) {
+        if (end - start < text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (bytes[start + i] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * number
+     * @return the decimal number written in the bytes between start and end
+     */
+    private int number(int start, int end) throws IOException {
+        if (end <= start || end - start > 2) {
+            throw error("has a board field that is not like board=19x19/5");
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9') {
+                throw error("has a board field that is not like board=19x19/5");
+            }
+            value = value * 10 + bytes[i] - '0';
+        }
+        return value;
+    }
+
+    /**
+     * error
+     * @param problem - what is wrong with the current record
+     * @return an exception naming the line the record is on
+     */
+    private IOException error(String problem) {
+        return new IOException("Game record on line " + lineNumber + " " + problem);
+    }
+
+    /**
+     * columnValues
+     * @return the column of each ASCII move character, or -1 for characters that are not moves
+     */
+    private static byte[] columnValues() {
+        byte[] values = new byte[128];
+        Arrays.fill(values, (byte) -1);
+        for (int col = 0; col < GameRecordWriter.COLUMN_CHARS.length(); col++) {
+            values[GameRecordWriter.COLUMN_CHARS.charAt(col)] = (byte) col;
+        }
+        return values;
+    }
+
+    /**
+     * Main method
+     * This method reads a game record file and prints how many games it holds, their results and the reading speed
+     * @param args - the game record file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java GameRecordReader file" + GameRecordWriter.EXTENSION);
+            return;
+        }
+        long[] results = new long[4]; // Player wins, computer wins, draws, unfinished
+        long moves = 0;
+        long invalid = 0;
+        long start = System.nanoTime();
+        try (GameRecordReader reader = new GameRecordReader(args[0])) {
+            while (true) {
+                long line = reader.getLineNumber();
+                try {
+                    if (!reader.next()) {
+                        break;
+                    }
+                } catch (IOException e) {
+                    if (reader.getLineNumber() == line) {
+                        throw e; // The file could not be read, rather than a record not being valid
+                    }
+                    System.err.println(e.getMessage());
+                    invalid++;
+                    continue;
+                }
+                moves += reader.getMoveCount();
+                results["xo=*".indexOf(reader.getResult())]++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long games = results[0] + results[1] + results[2] + results[3];
+        System.out.printf("%d games (%d player wins, %d computer wins, %d draws, %d unfinished), %d not valid%n",
+            games, results[0], results[1], results[2], results[3], invalid);
+        System.out.printf("%.1f moves a game, %.0f games/s%n", games == 0 ? 0.0 : (double) moves / games,
+            games / seconds);
+    }
+
+}//End of class GameRecordReader
@@ -0,0 +1,247 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * GameRecordWriter
+ * This class writes games as text game records, one game per line, for game databases of any size. Records are built
+ * straight into one reused buffer that is written to the file when it fills, so memory use stays the same however
+ * many games are written.
+ *
+ * Record layout, one line of ASCII text per game:
+ *   moves result [first=o] [board=WxH/C]
+ * moves  - the columns in the order they were played, counting from 1 as in "4453221": 1 to 9, then a to z, A to Z
+ *          and @ $ % for the widest boards, or a single - for a game with no moves yet
+ * result - x if the player won, o if the computer won, = for a draw and * for a game still being played
+ * first=o - only written when the computer made the first move, otherwise the player moved first
+ * board=WxH/C - only written for boards other than the standard 7x6 four in a row, e.g. board=19x19/5
+ * The player and the computer take turns. Empty lines and lines starting with # are skipped when reading, and other
+ * name=value fields are ignored, so records can carry extra notes. See GameRecordReader for reading records back.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class GameRecordWriter implements Closeable {
+    public static final String EXTENSION = ".c4r"; // File name ending for game record files
+    public static final String COLUMN_CHARS = "123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ@$%";
+    public static final char PLAYER_WINS = 'x';   // Result of a game won by the player
+    public static final char COMPUTER_WINS = 'o'; // Result of a game won by the computer
+    public static final char DRAW = '=';          // Result of a drawn game
+    public static final char UNFINISHED = '*';    // Result of a game still being played
+    public static final char NO_MOVES = '-';      // Moves of a game nobody has moved in yet
+    public static final int BUFFER_SIZE = 1 << 16; // Bytes gathered before each write to the file
+    private static final int MAX_METADATA = 32;    // Longest result, first=o and board=WxH/C fields and the newline
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] columns = new byte[GridBoard.MAX_SIZE * GridBoard.MAX_SIZE]; // The moves of the game written
+    private GameBoard position = new Bitboard(); // The game being written, replayed to find its end, reused every game
+    private int played;            // The number of moves on the position
+    private long count; // Games written so far
+
+    /**
+     * Constructor for GameRecordWriter class.
+     * This creates the file, or replaces it if it already exists
+     * @param fileName - the file to write
+     * @throws IOException if the file cannot be created
+     */
+    public GameRecordWriter(String fileName) throws IOException {
+        this(FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    /**
+     * Constructor for GameRecordWriter class.
+     * @param channel - where to write the records, e.g. a file or a pipe, which close() closes
+     */
+    public GameRecordWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * write
+     * This method writes a game's move history up to the current move, with its result. Moves played after the
+     * game was won are left out, as GameRecordReader does not accept them.
+     * @param game - the game to write
+     * @throws IOException if the records cannot be written
+     * @throws IllegalArgumentException if the player and the computer did not take turns
+     */
+    public void write(ConnectFour game) throws IOException {
+        MoveHistory history = game.getHistory();
+        resetPosition(game.getBoard());
+        int moves = history.size();
+        boolean playerFirst = moves == 0 || history.isPlayer(0);
+        for (int i = 0; i < moves; i++) {
+            boolean player = history.isPlayer(i);
+            if (player != (playerFirst == (i % 2 == 0))) {
+                throw new IllegalArgumentException("Move " + (i + 1) + " is not the other side's turn");
+            }
+            int col = history.getColumn(i);
+            columns[i] = (byte) col;
+            boolean won = position.isWinningMove(col, player);
+            position.play(col, player);
+            played++;
+            if (won) {
+                moves = i + 1; // The game ended here
+                break;
+            }
+        }
+        writeRecord(position, moves, playerFirst);
+    }
+
+    /**
+     * write
+     * This method copies the record a reader is on, e.g. to filter a game database without building the games
+     * @param record - the reader, on the record to copy
+     * @throws IOException if the records cannot be written
+     */
+    public void write(GameRecordReader record) throws IOException {
+        int moves = record.getMoveCount();
+        for (int i = 0; i < moves; i++) {
+            columns[i] = (byte) record.getColumn(i);
+        }
+        writeRecord(record.getPosition(), moves, record.isPlayerFirst());
+    }
+
+    /**
+     * flush
+     * This method writes the records gathered so far to the channel
+     * @throws IOException if the records cannot be written
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * close
+     * This method writes the remaining records and closes the channel
+     * @throws IOException if the records cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * getCount
+     * @return the number of games written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * resultOf
+     * @param board - the position at the end of the game record
+     * @return the result character for the position, e.g. PLAYER_WINS
+     */
+    public static char resultOf(GameBoard board) {
+        if (board.hasWon(true)) {
+            return PLAYER_WINS;
+        } else if (board.hasWon(false)) {
+            return COMPUTER_WINS;
+        }
+        return board.isFull() ? DRAW : UNFINISHED;
+    }
+
+    /**
+     * exportAll
+     * This method writes many games to one game record file
+     * @param games - the games to write
+     * @param fileName - the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void exportAll(List<ConnectFour> games, String fileName) throws IOException {
+        try (GameRecordWriter writer = new GameRecordWriter(fileName)) {
+            for (ConnectFour game : games) {
+                writer.write(game);
+            }
+        }
+        EngineMetrics.getDefault().recordGamesSaved(games.size());
+    }
+
+    /**
+     * writeRecord
+     * This method adds one line to the buffer, writing the buffer out first if the line might not fit
+     * @param board - the position at the end of the moves, for the board size and the result
+     * @param moves - the number of moves in columns
+     * @param playerFirst - true if the player made the first move
+     */
+    private void writeRecord(GameBoard board, int moves, boolean playerFirst) throws IOException {
+        if (buffer.remaining() < moves + MAX_METADATA) {
+            flush();
+        }
+        if (moves == 0) {
+            buffer.put((byte) NO_MOVES);
+        }
+        for (int i = 0; i < moves; i++) {
+            buffer.put((byte) COLUMN_CHARS.charAt(columns[i]));
+        }
+        buffer.put((byte) ' ').put((byte) resultOf(board));
+        if (!playerFirst) {
+            putText(" first=o");
+        }
+        if (board.getColumns() != Bitboard.WIDTH || board.getRows() != Bitboard.HEIGHT
+                || board.getConnect() != Bitboard.CONNECT) {
+            putText(" board=");
+            putNumber(board.getColumns());
+            buffer.put((byte) 'x');
+            putNumber(board.getRows());
+            buffer.put((byte) '/');
+            putNumber(board.getConnect());
+        }
+        buffer.put((byte) '\n');
+        count++;
+    }
+
+    /**
+     * resetPosition
+     * This method takes the moves of the last game off the position, or creates a position for a new board size
+     * @param board - the board of the next game to write
+     */
+    private void resetPosition(GameBoard board) {
+        if (board.getColumns() == position.getColumns() && board.getRows() == position.getRows()
+                && board.getConnect() == position.getConnect()) {
+            for (int i = played - 1; i >= 0; i--) {
+                position.unplay(columns[i]);
+            }
+        } else {
+            position = GameBoard.create(board.getColumns(), board.getRows(), board.getConnect());
+        }
+        played = 0;
+    }
+
+    /**
+     * putText
+     * @param text - ASCII text to add to the buffer
+     */
+    private void putText(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    /**
+     * putNumber
+     * @param number - a number from 0 to 99 to add to the buffer in decimal, which covers every board size
+     */
+    private void putNumber(int number) {
+        if (number >= 10) {
+            buffer.put((byte) ('0' + number / 10));
+        }
+        buffer.put((byte) ('0' + number % 10));
+    }
+
+}//End of class GameRecordWriter
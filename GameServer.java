@@ -0,0 +1,467 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameServer
+ * This class hosts many games of Connect Four at once over TCP, one game per connection, each against the computer.
+ *
+ * A single thread runs every connection through an NIO selector, and each session only holds its board, its moves and
+ * a small input buffer. The computer's moves are searched on a bounded pool of worker threads, so a burst of slow moves
+ * queues up there (or is turned away when the queue is full) instead of holding up the other sessions. Sessions that
+ * send nothing for the idle timeout are closed.
+ *
+ * The protocol is one line per command and one line per reply:
+ *   NEW      - start a new game                          reply: OK - PLAYING
+ *   MOVE c   - play column c, the computer answers        reply: OK <computer column or -> <state>
+ *   UNDO     - take back the last player and computer move reply: OK - <state>
+ *   SHOW     - show the board, top row first              reply: BOARD <row>/<row>/...
+ *   STATS    - show the server's sessions and heap use    reply: STATS sessions=<n> heap=<bytes>
+ *   QUIT     - close the connection                       reply: BYE
+ * where state is PLAYING, PLAYER_WINS, COMPUTER_WINS or DRAW. Errors are replied to with ERROR and a message.
+ *
+ * Run with: java GameServer [port] [strategy] [AI threads] [idle timeout seconds]
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class GameServer implements Runnable {
+    public static final int DEFAULT_PORT = 4444;
+    private static final int MAX_LINE = 64;          // Longest command accepted, in bytes
+    private static final int AI_QUEUE_PER_THREAD = 64; // Computer moves that may wait for each AI thread
+    private static final long CHECK_INTERVAL_MS = 1000; // How often idle sessions are looked for
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final ThreadPoolExecutor aiPool;  // Searches the computer's moves
+    private final ThreadLocal<MoveStrategy> strategies; // The computer player of each AI thread
+    private final ConcurrentLinkedQueue<Runnable> completed = new ConcurrentLinkedQueue<>(); // AI results for the selector
+    private final long idleMillis;            // Sessions idle for longer than this are closed
+    private volatile boolean running = true;
+    private int sessions;                     // Open sessions, only used by the selector thread
+
+    /**
+     * Constructor for GameServer class.
+     * @param port - the port to listen on, 0 for any free port
+     * @param strategy - the computer player, a MoveStrategy name such as computer or search:6
+     * @param aiThreads - the number of threads searching computer moves
+     * @param idleMillis - how long a session may send nothing before it is closed
+     * @throws IOException if the port cannot be opened
+     */
+    public GameServer(int port, final String strategy, int aiThreads, long idleMillis) throws IOException {
+        MoveStrategy.forName(strategy); // Check the name before any sessions start
+        this.idleMillis = idleMillis;
+        strategies = ThreadLocal.withInitial(() -> MoveStrategy.forName(strategy));
+        aiPool = new ThreadPoolExecutor(aiThreads, aiThreads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(aiThreads * AI_QUEUE_PER_THREAD), runnable -> {
+                Thread thread = new Thread(runnable, "server-ai");
+                thread.setDaemon(true);
+                return thread;
+            });
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * getPort
+     * @return the port the server is listening on
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * start
+     * This method runs the server on a thread of its own
+     * @return the server thread
+     */
+    public Thread start() {
+        Thread thread = new Thread(this, "game-server");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * stop
+     * This method closes every session and stops the server
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * run
+     * The selector loop: accepts connections, reads commands, writes replies, hands back the computer's moves and
+     * closes idle sessions
+     */
+    @Override
+    public void run() {
+        long nextCheck = System.currentTimeMillis() + CHECK_INTERVAL_MS;
+        try {
+            while (running) {
+                selector.select(CHECK_INTERVAL_MS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            if (key.isReadable()) {
+                                read(key);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                write(key);
+                            }
+                        }
+                    } catch (IOException e) {
+                        close(key); // The client has gone
+                    }
+                }
+                Runnable done;
+                while ((done = completed.poll()) != null) {
+                    done.run();
+                }
+                long now = System.currentTimeMillis();
+                if (now >= nextCheck) {
+                    evictIdle(now);
+                    nextCheck = now + CHECK_INTERVAL_MS;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error in the game server: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+                server.close();
+            } catch (IOException e) {
+                System.err.println("Error while stopping the game server: " + e.getMessage());
+            }
+            aiPool.shutdownNow();
+        }
+    }
+
+    /**
+     * accept
+     * This method opens a session for a new connection
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Session session = new Session();
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ, session);
+        sessions++;
+        reply(key, "HELLO ConnectFour " + Bitboard.WIDTH + "x" + Bitboard.HEIGHT);
+    }
+
+    /**
+     * read
+     * This method reads what the client has sent and runs every complete line
+     */
+    private void read(SelectionKey key) throws IOException {
+        Session session = (Session) key.attachment();
+        SocketChannel channel = (SocketChannel) key.channel();
+        if (channel.read(session.input) < 0) {
+            close(key);
+            return;
+        }
+        session.lastActive = System.currentTimeMillis();
+        runLines(key, session);
+    }
+
+    /**
+     * runLines
+     * This method runs the complete lines in the session's input. It stops while the computer is thinking, leaving
+     * the rest of the input (and anything still in the socket) until the computer's move has been sent.
+     */
+    private void runLines(SelectionKey key, Session session) {
+        ByteBuffer input = session.input;
+        input.flip();
+        int start = 0;
+        for (int i = 0; i < input.limit() && !session.thinking; i++) {
+            if (input.get(i) == '\n') {
+                String line = new String(input.array(), start, i - start, StandardCharsets.US_ASCII).trim();
+                start = i + 1;
+                command(key, session, line);
+                if (!key.isValid()) {
+                    return;
+                }
+            }
+        }
+        input.position(start);
+        input.compact();
+        if (!input.hasRemaining() && !session.thinking) { // A line longer than any command
+            input.clear();
+            reply(key, "ERROR line too long");
+        }
+        interest(key, session);
+    }
+
+    /**
+     * command
+     * This method runs one command line from a client
+     */
+    private void command(SelectionKey key, Session session, String line) {
+        String[] words = line.split("\\s+");
+        String name = words[0].toUpperCase();
+        if (name.equals("NEW")) {
+            session.board = new Bitboard();
+            reply(key, "OK - PLAYING");
+        } else if (name.equals("MOVE")) {
+            move(key, session, words);
+        } else if (name.equals("UNDO")) {
+            for (int i = 0; i < 2 && session.board.getMoveCount() > 0; i++) {
+                session.board.unplay(session.history[session.board.getMoveCount() - 1]);
+            }
+            reply(key, "OK - " + state(session.board));
+        } else if (name.equals("SHOW")) {
+            reply(key, "BOARD " + show(session.board));
+        } else if (name.equals("STATS")) {
+            Runtime runtime = Runtime.getRuntime();
+            reply(key, "STATS sessions=" + sessions + " heap=" + (runtime.totalMemory() - runtime.freeMemory()));
+        } else if (name.equals("QUIT")) {
+            reply(key, "BYE");
+            session.closing = true;
+        } else if (!name.isEmpty()) {
+            reply(key, "ERROR unknown command " + words[0]);
+        }
+    }
+
+    /**
+     * move
+     * This method plays the player's move and hands the computer's reply to the AI pool
+     */
+    private void move(final SelectionKey key, final Session session, String[] words) {
+        int col;
+        try {
+            col = Integer.parseInt(words.length > 1 ? words[1] : "");
+        } catch (NumberFormatException e) {
+            reply(key, "ERROR use MOVE <column>");
+            return;
+        }
+        if (!"PLAYING".equals(state(session.board))) {
+            reply(key, "ERROR the game is over, send NEW");
+            return;
+        }
+        if (col < 0 || col >= Bitboard.WIDTH || !session.board.canPlay(col)) {
+            reply(key, "ERROR column " + col + " cannot be played");
+            return;
+        }
+        play(session, col, true);
+        if (!"PLAYING".equals(state(session.board))) {
+            reply(key, "OK - " + state(session.board));
+            return;
+        }
+
+        final Bitboard position = session.board.copy();
+        session.thinking = true;
+        try {
+            aiPool.execute(() -> {
+                int chosen = -1; // Stays -1 if the computer player fails
+                try {
+                    chosen = strategies.get().chooseMove(position, false, ThreadLocalRandom.current());
+                } finally {
+                    final int reply = chosen;
+                    completed.add(() -> { // Always hand the session back, or it would never be read or evicted
+                        session.thinking = false;
+                        if (key.isValid() && reply < 0) {
+                            session.board.unplay(col); // Take back the player's move so it can be sent again
+                            reply(key, "ERROR the computer could not move, try again");
+                        } else if (key.isValid()) {
+                            play(session, reply, false);
+                            reply(key, "OK " + reply + " " + state(session.board));
+                        }
+                        if (key.isValid()) {
+                            runLines(key, session); // Carry on with any commands sent while the computer was thinking
+                        }
+                    });
+                    selector.wakeup();
+                }
+            });
+        } catch (RejectedExecutionException e) { // Too many computer moves waiting already
+            session.thinking = false;
+            session.board.unplay(col);
+            reply(key, "ERROR server busy, try again");
+        }
+    }
+
+    /**
+     * play
+     * This method drops a disc and records the move so it can be undone
+     */
+    private static void play(Session session, int col, boolean player) {
+        session.history[session.board.getMoveCount()] = (byte) col;
+        session.board.play(col, player);
+    }
+
+    /**
+     * state
+     * @return PLAYING, PLAYER_WINS, COMPUTER_WINS or DRAW
+     */
+    private static String state(Bitboard board) {
+        if (board.hasWon(true)) {
+            return "PLAYER_WINS";
+        } else if (board.hasWon(false)) {
+            return "COMPUTER_WINS";
+        }
+        return board.isFull() ? "DRAW" : "PLAYING";
+    }
+
+    /**
+     * show
+     * @return the board's rows from the top, separated by /
+     */
+    private static String show(Bitboard board) {
+        StringBuilder text = new StringBuilder();
+        for (int row = 0; row < Bitboard.HEIGHT; row++) {
+            if (row > 0) {
+                text.append('/');
+            }
+            for (int col = 0; col < Bitboard.WIDTH; col++) {
+                text.append(board.getState(col, row));
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * reply
+     * This method sends a line to the client, keeping whatever the socket cannot take yet until it is writable
+     */
+    private void reply(SelectionKey key, String line) {
+        Session session = (Session) key.attachment();
+        byte[] bytes = (line + "\n").getBytes(StandardCharsets.US_ASCII);
+        if (session.output == null) {
+            session.output = ByteBuffer.wrap(bytes);
+        } else { // Earlier replies are still waiting, add this one after them
+            ByteBuffer joined = ByteBuffer.allocate(session.output.remaining() + bytes.length);
+            joined.put(session.output).put(bytes).flip();
+            session.output = joined;
+        }
+        try {
+            write(key);
+        } catch (IOException e) {
+            close(key);
+        }
+    }
+
+    /**
+     * write
+     * This method writes waiting replies, and closes the session once its last reply is sent if it is quitting
+     */
+    private void write(SelectionKey key) throws IOException {
+        Session session = (Session) key.attachment();
+        if (session.output != null) {
+            ((SocketChannel) key.channel()).write(session.output);
+            if (session.output.hasRemaining()) {
+                interest(key, session);
+                return;
+            }
+            session.output = null;
+            interest(key, session);
+        }
+        if (session.closing) {
+            close(key);
+        }
+    }
+
+    /**
+     * interest
+     * This method sets what the selector watches a session for: input unless the computer is thinking, and output while
+     * replies are waiting
+     */
+    private static void interest(SelectionKey key, Session session) {
+        if (key.isValid()) {
+            key.interestOps((session.thinking ? 0 : SelectionKey.OP_READ)
+                | (session.output != null ? SelectionKey.OP_WRITE : 0));
+        }
+    }
+
+    /**
+     * evictIdle
+     * This method closes the sessions that have sent nothing for the idle timeout
+     */
+    private void evictIdle(long now) {
+        for (SelectionKey key : selector.keys()) {
+            Session session = (Session) key.attachment();
+            if (session != null && key.isValid() && !session.thinking && now - session.lastActive > idleMillis) {
+                reply(key, "BYE idle");
+                close(key);
+            }
+        }
+    }
+
+    /**
+     * close
+     * This method ends a session
+     */
+    private void close(SelectionKey key) {
+        if (key.attachment() instanceof Session && key.isValid()) {
+            sessions--;
+        }
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // The connection is being dropped anyway
+        }
+    }
+
+    /**
+     * Session
+     * The state of one client's game
+     */
+    private static class Session {
+        Bitboard board = new Bitboard();   // The game
+        final byte[] history = new byte[Bitboard.WIDTH * Bitboard.HEIGHT]; // The column of each move, for undo
+        final ByteBuffer input = ByteBuffer.allocate(MAX_LINE); // Bytes received that are not yet a whole line
+        ByteBuffer output;                  // Reply bytes the socket has not taken yet, or null
+        long lastActive = System.currentTimeMillis(); // When the client last sent something
+        boolean thinking;                   // True while the computer's move is being searched
+        boolean closing;                    // True once the client has quit
+    }
+
+    /**
+     * Main method - runs the server until the program is stopped
+     * @param args - optional port, computer strategy, number of AI threads and idle timeout in seconds
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String strategy = args.length > 1 ? args[1] : "computer";
+        int aiThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long idleSeconds = args.length > 3 ? Long.parseLong(args[3]) : 300;
+
+        GameServer server = new GameServer(port, strategy, aiThreads, idleSeconds * 1000);
+        System.out.println("Connect Four server listening on port " + server.getPort() + " (" + strategy + ", "
+            + aiThreads + " AI threads)");
+        server.run();
+    }
+
+}//End of class GameServer
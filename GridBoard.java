@@ -0,0 +1,460 @@
+import java.io.Serializable; // Import for the Serializable interface
+
+/**
+ * GridBoard
+ * This class holds the board for games that are not played on the standard 7x6 board with four in a row, from small
+ * boards up to e.g. 19x19 with five in a row. It works like Bitboard, but each side's discs are a bitset spread over
+ * as many longs as the board needs.
+ *
+ * Bits are laid out column by column from the bottom up with rows + 1 bits per column, the same as Bitboard, so the
+ * next cell in any direction is always the same number of bits away. For each direction the board keeps a line mask
+ * of the cells where a whole line of connect discs starting there fits on the board. A win anywhere on the board is
+ * then found with connect - 1 shifts and ANDs of the bitsets per direction, and a win through the last disc by
+ * following the four directions out from it, so the work grows with the size of the board and not faster.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class GridBoard implements GameBoard, Serializable {
+    public static final int MAX_SIZE = 64; // Most columns or rows, so a column always fits in a saved move byte
+
+    private static final int[] DIRECTION_COLUMNS = {1, 0, 1, 1}; // Column step between neighbours in each direction
+    private static final int[] DIRECTION_ROWS = {0, 1, -1, 1};   // Row step (upwards) between neighbours
+    private static final String[] DIRECTION_NAMES = {
+        WinResult.HORIZONTAL, WinResult.VERTICAL, WinResult.DIAGONAL_DOWN, WinResult.DIAGONAL_UP
+    };
+
+    private final int columns;        // Number of columns on the board
+    private final int rows;           // Number of rows on the board
+    private final int connect;        // Number of discs in a row that win the game
+    private final int stride;         // Bits used by each column, including the empty sentinel bit
+    private final int[] shifts;       // Bit distance between neighbours in each direction
+    private final long[][] lineStarts; // For each direction, the cells where a whole line starting there fits
+
+    private long[] playerBits;   // Cells occupied by the player's discs
+    private long[] computerBits; // Cells occupied by the computer's discs
+    private int[] heights;       // Number of discs in each column
+    private int moveCount;       // Number of discs on the board
+
+    /**
+     * Constructor of the class GridBoard
+     * Creates an empty board and works out its line masks
+     * @param columns - the number of columns, 1 to MAX_SIZE
+     * @param rows - the number of rows, 1 to MAX_SIZE
+     * @param connect - the number of discs in a row that win, at least 2 and no more than fits on the board
+     */
+    public GridBoard(int columns, int rows, int connect) {
+        if (columns < 1 || columns > MAX_SIZE || rows < 1 || rows > MAX_SIZE) {
+            throw new IllegalArgumentException("A board must have 1 to " + MAX_SIZE + " columns and rows, not "
+                + columns + "x" + rows);
+        }
+        if (connect < 2 || connect > Math.max(columns, rows)) {
+            throw new IllegalArgumentException("Cannot connect " + connect + " on a " + columns + "x" + rows + " board");
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.connect = connect;
+        this.stride = rows + 1;
+        int words = (columns * stride + 63) >>> 6;
+
+        shifts = new int[DIRECTION_NAMES.length];
+        lineStarts = new long[DIRECTION_NAMES.length][words];
+        for (int d = 0; d < shifts.length; d++) {
+            shifts[d] = DIRECTION_COLUMNS[d] * stride + DIRECTION_ROWS[d];
+            for (int col = 0; col < columns; col++) {
+                for (int row = 0; row < rows; row++) {
+                    int endCol = col + DIRECTION_COLUMNS[d] * (connect - 1);
+                    int endRow = row + DIRECTION_ROWS[d] * (connect - 1);
+                    if (endCol < columns && endRow >= 0 && endRow < rows) {
+                        int bit = col * stride + row;
+                        lineStarts[d][bit >>> 6] |= 1L << bit;
+                    }
+                }
+            }
+        }
+
+        playerBits = new long[words];
+        computerBits = new long[words];
+        heights = new int[columns]; // Every column starts empty
+    }
+
+    /**
+     * Constructor of the class GridBoard
+     * Creates a copy of a board, sharing its line masks, which never change
+     * @param board - the board to copy
+     */
+    private GridBoard(GridBoard board) {
+        columns = board.columns;
+        rows = board.rows;
+        connect = board.connect;
+        stride = board.stride;
+        shifts = board.shifts;
+        lineStarts = board.lineStarts;
+        playerBits = board.playerBits.clone();
+        computerBits = board.computerBits.clone();
+        heights = board.heights.clone();
+        moveCount = board.moveCount;
+    }
+
+    /**
+     * getColumns
+     * @return the number of columns on the board
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * getRows
+     * @return the number of rows on the board
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * getConnect
+     * @return the number of discs in a row that win the game
+     */
+    public int getConnect() {
+        return connect;
+    }
+
+    /**
+     * copy
+     * @return an independent copy of the board, which can be changed without affecting this one
+     */
+    public GridBoard copy() {
+        return new GridBoard(this);
+    }
+
+    /**
+     * canPlay
+     * @param col - the selected column
+     * @return true if the column is on the board and is not full
+     */
+    public boolean canPlay(int col) {
+        return col >= 0 && col < columns && heights[col] < rows;
+    }
+
+    /**
+     * play
+     * This method drops a disc into the selected column
+     * @param col - the selected column
+     * @param player - a Boolean value that determines whether it is a player/computer move
+     * @return the row (counted from the top, as used by Slot) where the disc landed
+     */
+    public int play(int col, boolean player) {
+        if (!canPlay(col)) {
+            throw new IllegalArgumentException("Column " + col + " is not available");
+        }
+        int bit = col * stride + heights[col]; // The lowest empty cell of the column
+        long[] own = player ? playerBits : computerBits;
+        own[bit >>> 6] |= 1L << bit;
+        heights[col]++;
+        moveCount++;
+        return rows - heights[col];
+    }
+
+    /**
+     * unplay
+     * This method removes the top disc from the selected column
+     * @param col - the selected column
+     * @return the row (counted from the top) that has been emptied, or -1 if the column was already empty
+     */
+    public int unplay(int col) {
+        if (col < 0 || col >= columns || heights[col] == 0) {
+            return -1; // Nothing to remove
+        }
+        int row = rows - heights[col];
+        heights[col]--;
+        moveCount--;
+        int bit = col * stride + heights[col];
+        playerBits[bit >>> 6] &= ~(1L << bit);
+        computerBits[bit >>> 6] &= ~(1L << bit);
+        return row;
+    }
+
+    /**
+     * isWinningMove
+     * This method checks whether dropping a disc in the selected column would complete a line, without changing the board
+     * @param col - the selected column
+     * @param player - a Boolean value that determines whether it is a player/computer move
+     * @return true if the move would win the game
+     */
+    public boolean isWinningMove(int col, boolean player) {
+        if (!canPlay(col)) {
+            return false;
+        }
+        long[] own = player ? playerBits : computerBits;
+        for (int d = 0; d < shifts.length; d++) {
+            if (run(own, col, heights[col], d, -1) + 1 + run(own, col, heights[col], d, 1) >= connect) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * hasWon
+     * @param player - true to check the player's discs, false to check the computer's
+     * @return true if that side has a whole line anywhere on the board
+     */
+    public boolean hasWon(boolean player) {
+        long[] own = player ? playerBits : computerBits;
+        for (int d = 0; d < shifts.length; d++) {
+            if (lineStart(own, d) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * checkWinAt
+     * This method checks only the lines through the top disc of a column, which is all that needs checking after a
+     * disc has been dropped there. Each direction is followed outwards until the owner's discs run out.
+     * @param col - the column the last disc was dropped into
+     * @return the winner and winning line, a draw if the board is full, or WinResult.NONE
+     */
+    public WinResult checkWinAt(int col) {
+        if (col >= 0 && col < columns && heights[col] > 0) {
+            int row = heights[col] - 1;
+            boolean player = isSet(playerBits, col * stride + row);
+            long[] own = player ? playerBits : computerBits;
+            for (int d = 0; d < shifts.length; d++) {
+                int back = run(own, col, row, d, -1);
+                int length = back + 1 + run(own, col, row, d, 1);
+                if (length >= connect) {
+                    int start = (col - back * DIRECTION_COLUMNS[d]) * stride + row - back * DIRECTION_ROWS[d];
+                    return win(player, d, start, length);
+                }
+            }
+        }
+        return isFull() ? WinResult.DRAW : WinResult.NONE;
+    }
+
+    /**
+     * findWin
+     * This method checks the whole board with the line masks, for when the last move is not known
+     * @return the winner and winning line, a draw if the board is full, or WinResult.NONE
+     */
+    public WinResult findWin() {
+        for (int side = 0; side < 2; side++) {
+            long[] own = side == 0 ? playerBits : computerBits;
+            for (int d = 0; d < shifts.length; d++) {
+                int start = lineStart(own, d);
+                if (start >= 0) {
+                    return win(side == 0, d, start, connect);
+                }
+            }
+        }
+        return isFull() ? WinResult.DRAW : WinResult.NONE;
+    }
+
+    /**
+     * scoreMove
+     * This method scores dropping a disc in a column by the lines through the cell it lands in. A line only counts if
+     * one side has no discs in it, and the more discs the other side already has there the more it counts, whether
+     * the move builds the line or blocks it.
+     * @param col - the selected column, which must be playable
+     * @param player - a Boolean value that determines whether it is a player/computer move
+     * @return the score of the move, higher is better
+     */
+    public long scoreMove(int col, boolean player) {
+        long[] own = player ? playerBits : computerBits;
+        long[] other = player ? computerBits : playerBits;
+        int cell = col * stride + heights[col];
+        long score = 0;
+        for (int d = 0; d < shifts.length; d++) {
+            for (int i = 0; i < connect; i++) { // Every line of the direction that passes through the cell
+                int start = cell - i * shifts[d];
+                if (start < 0 || !isSet(lineStarts[d], start)) {
+                    continue;
+                }
+                int ownCount = 0;
+                int otherCount = 0;
+                for (int j = 0, bit = start; j < connect; j++, bit += shifts[d]) {
+                    ownCount += isSet(own, bit) ? 1 : 0;
+                    otherCount += isSet(other, bit) ? 1 : 0;
+                }
+                if (otherCount == 0) {
+                    score += 1L << Math.min(3 * ownCount, 60); // Building a line
+                } else if (ownCount == 0) {
+                    score += 1L << Math.min(3 * otherCount - 1, 59); // Blocking one
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * isFull
+     * @return true if every cell on the board is occupied
+     */
+    public boolean isFull() {
+        return moveCount == columns * rows;
+    }
+
+    /**
+     * getState
+     * This method provides the state of a single cell, using the same row numbering as Slot (row 0 is the top row)
+     * @param col - the column of the cell
+     * @param row - the row of the cell
+     * @return PLAYERMOVE, COMPUTERMOVE or EMPTYSLOT
+     */
+    public String getState(int col, int row) {
+        int bit = cellBit(col, row);
+        if (isSet(playerBits, bit)) {
+            return ConnectFour.PLAYERMOVE;
+        } else if (isSet(computerBits, bit)) {
+            return ConnectFour.COMPUTERMOVE;
+        }
+        return ConnectFour.EMPTYSLOT;
+    }
+
+    /**
+     * setState
+     * This method writes a state directly into a single cell and recalculates that column's height.
+     * It is only kept for callers that edit the board through Slot, moves should be made with play/unplay.
+     * @param col - the column of the cell
+     * @param row - the row of the cell
+     * @param state - PLAYERMOVE, COMPUTERMOVE or EMPTYSLOT
+     */
+    public void setState(int col, int row, String state) {
+        int bit = cellBit(col, row);
+        long cell = 1L << bit;
+        if (isSet(playerBits, bit) || isSet(computerBits, bit)) {
+            moveCount--;
+        }
+        playerBits[bit >>> 6] &= ~cell;
+        computerBits[bit >>> 6] &= ~cell;
+        if (state.equals(ConnectFour.PLAYERMOVE)) {
+            playerBits[bit >>> 6] |= cell;
+            moveCount++;
+        } else if (state.equals(ConnectFour.COMPUTERMOVE)) {
+            computerBits[bit >>> 6] |= cell;
+            moveCount++;
+        }
+
+        // The height is the number of occupied cells from the bottom of the column up to the first gap
+        int height = 0;
+        while (height < rows && (isSet(playerBits, col * stride + height) || isSet(computerBits, col * stride + height))) {
+            height++;
+        }
+        heights[col] = height;
+    }
+
+    /**
+     * getHeight
+     * @param col - the selected column
+     * @return the number of discs in the column
+     */
+    public int getHeight(int col) {
+        return heights[col];
+    }
+
+    /**
+     * getMoveCount
+     * @return the number of discs on the board
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * run
+     * This method counts one side's discs in a row from a cell, not counting the cell itself
+     * @param own - the side's discs
+     * @param col - the column of the cell
+     * @param row - the row of the cell, counted from the bottom
+     * @param direction - the direction to follow
+     * @param step - 1 to follow it forwards, -1 backwards
+     * @return the number of discs before the first cell that is not the side's or is off the board
+     */
+    private int run(long[] own, int col, int row, int direction, int step) {
+        int count = 0;
+        int c = col + step * DIRECTION_COLUMNS[direction];
+        int r = row + step * DIRECTION_ROWS[direction];
+        while (c >= 0 && c < columns && r >= 0 && r < rows && isSet(own, c * stride + r)) {
+            count++;
+            c += step * DIRECTION_COLUMNS[direction];
+            r += step * DIRECTION_ROWS[direction];
+        }
+        return count;
+    }
+
+    /**
+     * lineStart
+     * This method finds a whole line of one side's discs in one direction, a word of the bitset at a time
+     * @param own - the side's discs
+     * @param direction - the direction of the line
+     * @return the bit of the lowest cell where a line starts, or -1 if there is none
+     */
+    private int lineStart(long[] own, int direction) {
+        long[] starts = lineStarts[direction];
+        int shift = shifts[direction];
+        for (int i = 0; i < own.length; i++) {
+            long m = starts[i] & own[i];
+            for (int k = 1; k < connect && m != 0; k++) {
+                m &= wordAt(own, i, k * shift); // Keep the cells whose k-th neighbour is also the side's
+            }
+            if (m != 0) {
+                return (i << 6) + Long.numberOfTrailingZeros(m);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * win
+     * @param player - true if the player has won
+     * @param direction - the direction of the winning line
+     * @param start - the bit of the line's lowest cell
+     * @param length - the number of discs in the line
+     * @return the WinResult for the line
+     */
+    private WinResult win(boolean player, int direction, int start, int length) {
+        int[][] cells = new int[length][];
+        for (int i = 0, bit = start; i < length; i++, bit += shifts[direction]) {
+            cells[i] = new int[] {bit / stride, rows - 1 - bit % stride};
+        }
+        return new WinResult(player ? ConnectFour.PLAYERMOVE : ConnectFour.COMPUTERMOVE,
+            DIRECTION_NAMES[direction], cells, connect);
+    }
+
+    /**
+     * cellBit
+     * This method converts a Slot position (row 0 is the top row) into its bit on the board
+     * @param col - the column of the cell
+     * @param row - the row of the cell
+     * @return the bit number of the cell
+     */
+    private int cellBit(int col, int row) {
+        return col * stride + rows - 1 - row;
+    }
+
+    /**
+     * isSet
+     * @return true if the bit is set in the bitset
+     */
+    private static boolean isSet(long[] bits, int bit) {
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * wordAt
+     * @param bits - a bitset
+     * @param index - the word of the result
+     * @param shift - the number of bits to shift the bitset down by
+     * @return word index of the bitset shifted down, with the bits above it brought in from the next word
+     */
+    private static long wordAt(long[] bits, int index, int shift) {
+        int word = index + (shift >>> 6);
+        int offset = shift & 63;
+        long value = word < bits.length ? bits[word] >>> offset : 0;
+        if (offset != 0 && word + 1 < bits.length) {
+            value |= bits[word + 1] << (64 - offset);
+        }
+        return value;
+    }
+}//End of class GridBoard
@@ -0,0 +1,54 @@
+/**
+ * GridEngine
+ * This class chooses the computer's moves on boards other than the standard 7x6 board with four in a row, which the
+ * search engine and opening book do not cover. It only looks one move ahead for each side, so it stays quick on large
+ * boards: it wins if it can, stops the opponent winning, avoids giving the opponent a win on top of its own disc, and
+ * otherwise plays the move whose lines score best (see GridBoard.scoreMove), nearest the centre on a tie.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class GridEngine {
+
+    /**
+     * chooseMove
+     * @param board - the current board, which is changed and put back
+     * @param player - true if the move is for the player, false for the computer
+     * @return the column to play, or -1 if the board is full
+     */
+    public static int chooseMove(GridBoard board, boolean player) {
+        int columns = board.getColumns();
+        for (int col = 0; col < columns; col++) { // Win straight away
+            if (board.isWinningMove(col, player)) {
+                return col;
+            }
+        }
+        for (int col = 0; col < columns; col++) { // Stop the opponent winning straight away
+            if (board.isWinningMove(col, !player)) {
+                return col;
+            }
+        }
+
+        int best = -1;
+        long bestScore = -1;
+        int bestDistance = columns;
+        for (int col = 0; col < columns; col++) {
+            if (!board.canPlay(col)) {
+                continue;
+            }
+            long score = board.scoreMove(col, player);
+            board.play(col, player);
+            if (board.isWinningMove(col, !player)) {
+                score = 0; // Only played if every other move is as bad
+            }
+            board.unplay(col);
+            int distance = Math.abs(2 * col - (columns - 1)); // Twice the distance from the centre
+            if (score > bestScore || score == bestScore && distance < bestDistance) {
+                best = col;
+                bestScore = score;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+}//End of class GridEngine
@@ -0,0 +1,140 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram
+ * This class counts durations into buckets so that percentiles can be read off without keeping every duration.
+ * Each power of two is split into SUB_BUCKETS buckets of equal width, so a percentile is never more than 1/8 (12.5%)
+ * above the true value, and every bucket is a LongAdder so many threads can record at once without contention.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3; // Each power of two is split into 2^SUB_BITS buckets
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS; // Enough for any positive long
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS]; // The number of durations in each bucket
+    private final LongAdder total = new LongAdder(); // The sum of every duration recorded
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0); // The longest duration recorded
+
+    /**
+     * Constructor for LatencyHistogram class.
+     * Creates an empty histogram
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * record
+     * @param nanos - a duration in nanoseconds, negative durations count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucket(value)].increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * percentile
+     * @param percent - the percentile to find, e.g. 99 for the 99th percentile
+     * @return the duration, in nanoseconds, that the given percent of the durations recorded do not exceed (rounded up
+     * to the top of its bucket), or 0 if nothing has been recorded
+     */
+    public long percentile(double percent) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percent / 100 * count)); // The rank of the duration wanted
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * getCount
+     * @return the number of durations recorded
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : counts) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * getMean
+     * @return the mean duration in nanoseconds, 0 if nothing has been recorded
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) total.sum() / count;
+    }
+
+    /**
+     * getMax
+     * @return the longest duration recorded in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * reset
+     * This method empties the histogram. Durations recorded while it is being reset may or may not be kept.
+     */
+    public void reset() {
+        for (LongAdder bucket : counts) {
+            bucket.reset();
+        }
+        total.reset();
+        max.reset();
+    }
+
+    /**
+     * bucket
+     * Values below SUB_BUCKETS have a bucket each, larger ones go by their highest bit and the SUB_BITS bits below it
+     * @param value - a duration, at least 0
+     * @return the bucket the duration is counted in
+     */
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // Position of the highest bit, at least SUB_BITS
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * upperBound
+     * @param bucket - a bucket number
+     * @return the largest duration counted in the bucket
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long width = 1L << (exponent - SUB_BITS);
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+        return lower + width - 1;
+    }
+
+}//End of class LatencyHistogram
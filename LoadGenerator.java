@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * LoadGenerator
+ * This class opens many sessions on a GameServer and plays moves on all of them at once, to measure how many sessions
+ * the server can hold and how quickly it answers under load.
+ *
+ * Without a host it starts a server in the same JVM and measures the heap each session takes. That figure includes the
+ * load generator's own end of each connection, so the server on its own holds more sessions per GB than reported.
+ *
+ * Run with: java LoadGenerator [sessions] [moves per session] [client threads] [strategy] [host] [port]
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class LoadGenerator {
+    private static final long GB = 1L << 30;
+
+    /**
+     * Client
+     * One blocking connection to the server, reading replies a line at a time
+     */
+    private static class Client {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        private final byte[] buffer = new byte[128];
+        private int start;
+        private int end;
+
+        Client(String host, int port) throws IOException {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            in = socket.getInputStream();
+            out = socket.getOutputStream();
+            readLine(); // HELLO
+        }
+
+        String send(String command) throws IOException {
+            out.write((command + "\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return readLine();
+        }
+
+        String readLine() throws IOException {
+            while (true) {
+                for (int i = start; i < end; i++) {
+                    if (buffer[i] == '\n') {
+                        String line = new String(buffer, start, i - start, StandardCharsets.US_ASCII);
+                        start = i + 1;
+                        return line;
+                    }
+                }
+                if (start > 0) { // Move the partial line to the front to make room
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    start = 0;
+                }
+                int read = in.read(buffer, end, buffer.length - end);
+                if (read < 0) {
+                    throw new IOException("The server closed the connection");
+                }
+                end += read;
+            }
+        }
+
+        void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * usedHeap
+     * @return the heap in use after a garbage collection
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Main method - opens the sessions, plays the moves and prints the report
+     * @param args - optional number of sessions, moves per session, client threads, strategy, host and port
+     */
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        final int moves = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        String strategy = args.length > 3 ? args[3] : "search:4";
+        final String host = args.length > 4 ? args[4] : "localhost";
+        int port = args.length > 5 ? Integer.parseInt(args[5]) : GameServer.DEFAULT_PORT;
+
+        GameServer server = null;
+        if (args.length <= 4) {
+            server = new GameServer(0, strategy, Runtime.getRuntime().availableProcessors(), 600000);
+            server.start();
+            port = server.getPort();
+        }
+
+        // Open every session and see how much heap they take
+        long before = usedHeap();
+        final Client[] clients = new Client[sessions];
+        for (int i = 0; i < sessions; i++) {
+            clients[i] = new Client(host, port);
+        }
+        long perSession = (usedHeap() - before) / sessions;
+        System.out.println(clients[0].send("STATS"));
+
+        // Each client thread plays its share of the sessions in turn, one move each round
+        final long[][] latencies = new long[threads][];
+        final int[] errors = new int[threads];
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            final int from = sessions * t / threads;
+            final int to = sessions * (t + 1) / threads;
+            latencies[t] = new long[(to - from) * moves];
+            workers[t] = new Thread(() -> {
+                Random random = new Random(id);
+                int count = 0;
+                try {
+                    for (int round = 0; round < moves; round++) {
+                        for (int i = from; i < to; i++) {
+                            long sent = System.nanoTime();
+                            String reply = clients[i].send("MOVE " + random.nextInt(Bitboard.WIDTH));
+                            latencies[id][count++] = System.nanoTime() - sent;
+                            if (reply.startsWith("ERROR")) {
+                                errors[id]++;
+                            }
+                            if (reply.startsWith("ERROR the game is over") || reply.startsWith("OK")
+                                    && !reply.endsWith("PLAYING")) {
+                                clients[i].send("NEW");
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    System.err.println("Client error: " + e.getMessage());
+                }
+                latencies[id] = Arrays.copyOf(latencies[id], count);
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] all = new long[0];
+        int errorCount = 0;
+        for (int t = 0; t < threads; t++) {
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + latencies[t].length);
+            System.arraycopy(latencies[t], 0, all, offset, latencies[t].length);
+            errorCount += errors[t];
+        }
+        Arrays.sort(all);
+        for (Client client : clients) {
+            client.close();
+        }
+
+        System.out.println(String.format("%d sessions, %d moves in %.1f s (%.0f moves/s), %d error replies",
+            sessions, all.length, seconds, all.length / seconds, errorCount));
+        if (server != null) {
+            System.out.println(String.format("heap per session %d bytes (both ends), %.0f sessions per GB",
+                perSession, GB / (double) Math.max(perSession, 1)));
+            server.stop();
+        }
+        if (all.length > 0) {
+            System.out.println(String.format("move latency ms: p50 %.2f, p99 %.2f, max %.2f",
+                all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6, all[all.length - 1] / 1e6));
+        }
+    }
+
+}//End of class LoadGenerator
@@ -0,0 +1,149 @@
+import java.util.Stack;
+
+/**
+ * MoveHistory
+ * This class keeps the moves of a game in order, one byte per move holding the column and who made it, in an array
+ * with room for every cell of the board so recording a move never allocates. Moves that have been undone stay after
+ * the current ply until a new move is made, so they can be redone and a game can be stepped backwards and forwards.
+ * The discs themselves are kept by the board, whose column heights make each move and undo O(1).
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class MoveHistory {
+    public static final int PLAYER_FLAG = 0x80; // Marks a move made by the player, as in GameCodec
+    private static final int COLUMN_MASK = PLAYER_FLAG - 1;
+
+    private final byte[] moves; // The moves made, then the moves undone that can still be redone
+    private int ply;            // The number of moves currently on the board
+    private int end;            // The number of moves that can be reached by redoing
+
+    /**
+     * Constructor for MoveHistory class.
+     * Creates an empty history
+     * @param capacity - the most moves the game can have, the number of cells on the board
+     */
+    public MoveHistory(int capacity) {
+        moves = new byte[capacity];
+    }
+
+    /**
+     * push
+     * This method records a move at the current ply, dropping any moves that were undone
+     * @param col - the column played, 0 to GridBoard.MAX_SIZE - 1
+     * @param player - true if the move was made by the player
+     */
+    public void push(int col, boolean player) {
+        moves[ply++] = (byte) (col | (player ? PLAYER_FLAG : 0));
+        end = ply;
+    }
+
+    /**
+     * pop
+     * This method steps back one ply, keeping the move so it can be redone
+     * @return the column of the move stepped back over
+     * @throws IllegalStateException if there are no moves
+     */
+    public int pop() {
+        if (ply == 0) {
+            throw new IllegalStateException("No moves to undo");
+        }
+        return moves[--ply] & COLUMN_MASK;
+    }
+
+    /**
+     * forward
+     * This method steps forward one ply over a move that was undone
+     * @return the move stepped over, its column with PLAYER_FLAG set if the player made it
+     * @throws IllegalStateException if there are no moves to redo
+     */
+    public int forward() {
+        if (ply == end) {
+            throw new IllegalStateException("No moves to redo");
+        }
+        return moves[ply++] & 0xFF;
+    }
+
+    /**
+     * clear
+     * This method empties the history, including the moves that could be redone
+     */
+    public void clear() {
+        ply = 0;
+        end = 0;
+    }
+
+    /**
+     * size
+     * @return the number of moves currently on the board
+     */
+    public int size() {
+        return ply;
+    }
+
+    /**
+     * isEmpty
+     * @return true if no moves are on the board
+     */
+    public boolean isEmpty() {
+        return ply == 0;
+    }
+
+    /**
+     * getRedoCount
+     * @return the number of undone moves that can be redone
+     */
+    public int getRedoCount() {
+        return end - ply;
+    }
+
+    /**
+     * getColumn
+     * @param index - the ply of the move, 0 for the first move, up to size() + getRedoCount() - 1
+     * @return the column of the move
+     */
+    public int getColumn(int index) {
+        return moves[checkIndex(index)] & COLUMN_MASK;
+    }
+
+    /**
+     * isPlayer
+     * @param index - the ply of the move, 0 for the first move, up to size() + getRedoCount() - 1
+     * @return true if the move was made by the player
+     */
+    public boolean isPlayer(int index) {
+        return (moves[checkIndex(index)] & PLAYER_FLAG) != 0;
+    }
+
+    /**
+     * lastColumn
+     * @return the column of the latest move on the board, or -1 if there are no moves
+     */
+    public int lastColumn() {
+        return ply == 0 ? -1 : moves[ply - 1] & COLUMN_MASK;
+    }
+
+    /**
+     * toStack
+     * @return the columns of the moves on the board, first move at the bottom, in a new stack
+     */
+    public Stack<Integer> toStack() {
+        Stack<Integer> stack = new Stack<>();
+        for (int i = 0; i < ply; i++) {
+            stack.push(moves[i] & COLUMN_MASK);
+        }
+        return stack;
+    }
+
+    /**
+     * checkIndex
+     * @param index - the ply of a move
+     * @return the index, if it is a move that has been made or can be redone
+     */
+    private int checkIndex(int index) {
+        if (index < 0 || index >= end) {
+            throw new IndexOutOfBoundsException("No move at ply " + index);
+        }
+        return index;
+    }
+
+}//End of class MoveHistory
@@ -0,0 +1,314 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * MoveJournal
+ * This class keeps a game safe on disk as it is played. Every move, undo and clear is appended to a journal file as a
+ * single byte, so a game can be picked up again after the program stops, even if it was never saved.
+ *
+ * The file starts with a GameCodec snapshot of the game and is followed by the changes made since:
+ *   a move - the column, plus 0x80 for a player move (the same byte GameCodec uses)
+ *   UNDO   - the last disc was taken back
+ *   CLEAR  - the board was cleared
+ * The changes are written by a background thread, so the game never waits for the disk. Changes made while the thread
+ * is busy are written together, and the file is synced at most every SYNC_INTERVAL_MS. Once the file holds
+ * COMPACT_RECORDS changes it is rewritten as a fresh snapshot.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class MoveJournal {
+    public static final int SYNC_INTERVAL_MS = 100; // Longest time a change waits before it is synced to disk
+    public static final int COMPACT_RECORDS = 256;  // Number of changes after which the file is rewritten as a snapshot
+    private static final int PLAYER_FLAG = 0x80;
+    private static final int UNDO = 0x7F;
+    private static final int CLEAR = 0x7E;
+
+    private final Path path;           // The journal file
+    private final Thread writer;       // The background thread writing the changes
+    private final Thread shutdownHook; // Syncs the last changes when the program exits, removed by close
+    private FileChannel channel;       // The journal file, opened for appending, only used by the writer
+    private ConnectFour mirror;        // The game as written to the file so far, only used by the writer
+    private int records;               // The number of changes in the file since its snapshot
+
+    private byte[] pending = new byte[64]; // Changes waiting to be written
+    private byte[] spare = new byte[64];   // The buffer the writer hands back on its next turn
+    private int pendingLength;             // The number of bytes in pending
+    private byte[] snapshot;               // A snapshot waiting to replace the file, or null
+    private long written;                  // The number of changes handed to the writer
+    private long synced;                   // The number of changes synced to disk
+    private boolean closed;                // Set once close has been called
+    private IOException failure;           // The error that stopped the writer, if any
+
+    /**
+     * Constructor for MoveJournal class.
+     * This opens the journal file, creating it if needed, and starts the writer thread
+     * @param fileName - the journal file
+     * @throws IOException if the file cannot be opened or its contents are damaged
+     */
+    public MoveJournal(String fileName) throws IOException {
+        path = Paths.get(fileName);
+        mirror = recover(fileName);
+        compact(GameCodec.encode(mirror)); // Start from a clean snapshot, dropping any torn change at the end
+        writer = new Thread(this::run, "move-journal");
+        writer.setDaemon(true);
+        writer.start();
+        shutdownHook = new Thread(this::close, "move-journal-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook); // Sync the last changes when the program exits
+    }
+
+    /**
+     * recover
+     * This method rebuilds a game from its journal file by replaying the changes after the snapshot.
+     * Reading stops at the first change that cannot be made, which is where a crash cut the file short.
+     * @param fileName - the journal file
+     * @return the game as last written to the journal, or a new game if there is no journal file
+     * @throws IOException if the file cannot be read or its snapshot is damaged
+     */
+    public static ConnectFour recover(String fileName) throws IOException {
+        Path file = Paths.get(fileName);
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            return new ConnectFour();
+        }
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        ConnectFour game = GameCodec.decode(in);
+        while (in.hasRemaining() && apply(game, in.get() & 0xFF)) {
+            // Keep replaying until the end of the file or a change that cannot be made
+        }
+        return game;
+    }
+
+    /**
+     * move
+     * @param col - the column of the move
+     * @param player - true if the player made the move
+     */
+    public void move(int col, boolean player) {
+        append(col | (player ? PLAYER_FLAG : 0));
+    }
+
+    /**
+     * undo
+     * This method records that the last disc was taken back
+     */
+    public void undo() {
+        append(UNDO);
+    }
+
+    /**
+     * clear
+     * This method records that the board was cleared
+     */
+    public void clear() {
+        append(CLEAR);
+    }
+
+    /**
+     * reset
+     * This method replaces everything in the journal with a snapshot of the game, e.g. when a game is loaded
+     * @param game - the game now being played
+     */
+    public synchronized void reset(ConnectFour game) {
+        snapshot = GameCodec.encode(game);
+        pendingLength = 0; // Changes made before the snapshot are part of it
+        written++;
+        notifyAll();
+    }
+
+    /**
+     * flush
+     * This method waits until every change made so far has been synced to disk
+     * @throws IOException if the journal could not be written
+     */
+    public synchronized void flush() throws IOException {
+        long target = written;
+        while (synced < target && failure == null && writer.isAlive()) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while flushing the move journal");
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * close
+     * This method writes and syncs the remaining changes, stops the writer thread and removes the shutdown hook
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // The program is already exiting, so the hook is running or about to, and will wait for the writer
+            }
+        }
+        if (Thread.currentThread() != writer) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * append
+     * This method queues a change for the writer
+     * @param record - the change
+     */
+    private synchronized void append(int record) {
+        if (closed || failure != null) {
+            return;
+        }
+        if (pendingLength == pending.length) {
+            pending = Arrays.copyOf(pending, pending.length * 2);
+        }
+        pending[pendingLength++] = (byte) record;
+        written++;
+        notifyAll();
+    }
+
+    /**
+     * run
+     * The writer thread: takes every queued change in one go, appends them, syncs when the interval is up and
+     * compacts the file when it has grown
+     */
+    private void run() {
+        long unsynced = 0;  // Changes written but not yet synced
+        long syncDue = 0;   // The time the oldest unsynced change must be synced by
+        try {
+            while (true) {
+                byte[] batch;
+                int length;
+                byte[] snap;
+                boolean closing;
+                long taken;
+                synchronized (this) {
+                    while (pendingLength == 0 && snapshot == null && !closed) {
+                        long wait = unsynced == 0 ? 0 : syncDue - System.currentTimeMillis();
+                        if (unsynced > 0 && wait <= 0) {
+                            break;
+                        }
+                        wait(Math.max(wait, 0));
+                    }
+                    batch = pending;
+                    length = pendingLength;
+                    pending = spare;
+                    spare = batch;
+                    pendingLength = 0;
+                    snap = snapshot;
+                    snapshot = null;
+                    closing = closed;
+                    taken = written - synced - unsynced;
+                }
+
+                if (snap != null) {
+                    mirror = GameCodec.decode(ByteBuffer.wrap(snap));
+                    compact(snap);
+                }
+                if (length > 0) {
+                    for (int i = 0; i < length; i++) {
+                        apply(mirror, batch[i] & 0xFF);
+                    }
+                    ByteBuffer out = ByteBuffer.wrap(batch, 0, length);
+                    while (out.hasRemaining()) {
+                        channel.write(out);
+                    }
+                    records += length;
+                }
+                if (taken > 0 && unsynced == 0) {
+                    syncDue = System.currentTimeMillis() + SYNC_INTERVAL_MS;
+                }
+                unsynced += taken;
+
+                if (records >= COMPACT_RECORDS) {
+                    compact(GameCodec.encode(mirror));
+                }
+                if (unsynced > 0 && (closing || System.currentTimeMillis() >= syncDue)) {
+                    channel.force(false);
+                    synchronized (this) {
+                        synced += unsynced;
+                        notifyAll();
+                    }
+                    unsynced = 0;
+                }
+                if (closing) {
+                    channel.close();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error while writing the move journal: " + e.getMessage());
+            synchronized (this) {
+                failure = e;
+                notifyAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * compact
+     * This method replaces the journal file with a snapshot, writing a new file and moving it into place so that a
+     * crash leaves either the old file or the new one
+     * @param snap - the encoded game
+     */
+    private void compact(byte[] snap) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(snap);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(false);
+        }
+        if (channel != null) {
+            channel.close();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        records = 0;
+    }
+
+    /**
+     * apply
+     * This method makes one journal change to a game
+     * @param game - the game to change
+     * @param record - the change
+     * @return false if the change cannot be made to the game
+     */
+    private static boolean apply(ConnectFour game, int record) {
+        if (record == CLEAR) {
+            game.createGame();
+        } else if (record == UNDO) {
+            if (game.undo(1) == 0) {
+                return false;
+            }
+        } else {
+            int col = record & ~PLAYER_FLAG;
+            if (!game.getBoard().canPlay(col)) {
+                return false;
+            }
+            game.replayMove(col, (record & PLAYER_FLAG) != 0);
+        }
+        return true;
+    }
+
+}//End of class MoveJournal
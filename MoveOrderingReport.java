@@ -0,0 +1,107 @@
+/**
+ * MoveOrderingReport
+ * This class measures what each of the Engine's move ordering heuristics saves. Every position in a fixed set is
+ * searched to the same depth with each combination of heuristics, with a fresh table each time, and the nodes, the
+ * share of cutoffs made by the first move searched, the average number of moves searched per node and the time are
+ * compared with searching the columns left to right.
+ * It also checks that every ordering returned the same score, which the ordering must never change.
+ *
+ * Run with: java MoveOrderingReport [depth] [table MB]
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class MoveOrderingReport {
+    // Positions as the columns played from the empty board, player first
+    private static final String[] POSITIONS = {
+        "", "3", "33", "3332", "2345", "332412", "3322114", "43322", "1233444", "0123456"
+    };
+
+    // The orderings compared, each heuristic on its own and then added to the default one by one
+    private static final int[] ORDERINGS = {
+        0, Engine.CENTRE_ORDER, Engine.TABLE_MOVE, Engine.KILLER_MOVES, Engine.HISTORY,
+        Engine.DEFAULT_ORDERING, Engine.DEFAULT_ORDERING | Engine.KILLER_MOVES,
+        Engine.DEFAULT_ORDERING | Engine.HISTORY, Engine.ALL_ORDERING
+    };
+
+    /**
+     * Main method - runs the report and prints it to the console
+     * @param args - optional depth and table size in MB
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        int tableMb = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+        System.out.println("Depth " + depth + ", " + POSITIONS.length + " positions, " + tableMb + " MB table");
+        System.out.println(String.format("%-30s %12s %7s %10s %10s %10s   %s", "ordering", "nodes", "saved",
+                "first cut", "branching", "time ms", "same score"));
+
+        SearchResult[] baseline = null;
+        long baseNodes = 0;
+        for (int ordering : ORDERINGS) {
+            SearchResult[] results = new SearchResult[POSITIONS.length];
+            long nodes = 0;
+            long cutoffs = 0;
+            long firstMoveCutoffs = 0;
+            long expanded = 0;
+            long searched = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < POSITIONS.length; i++) {
+                Engine engine = new Engine(depth, new TranspositionTable(tableMb));
+                engine.setOrdering(ordering);
+                results[i] = engine.search(position(POSITIONS[i]), POSITIONS[i].length() % 2 == 0);
+                nodes += results[i].getNodes();
+                cutoffs += engine.getCutoffs();
+                firstMoveCutoffs += engine.getFirstMoveCutoffs();
+                expanded += engine.getExpandedNodes();
+                searched += engine.getMovesSearched();
+            }
+            double time = (System.nanoTime() - start) / 1e6;
+
+            boolean same = true;
+            if (baseline == null) {
+                baseline = results;
+                baseNodes = nodes;
+            }
+            for (int i = 0; i < POSITIONS.length; i++) {
+                same &= results[i].getScore() == baseline[i].getScore();
+            }
+            System.out.println(String.format("%-30s %12d %6.1f%% %9.1f%% %10.2f %10.1f   %s", name(ordering), nodes,
+                    100.0 * (baseNodes - nodes) / baseNodes, cutoffs == 0 ? 0 : 100.0 * firstMoveCutoffs / cutoffs,
+                    expanded == 0 ? 0 : (double) searched / expanded, time, same ? "yes" : "NO"));
+        }
+    }
+
+    /**
+     * name
+     * @param ordering - a combination of the Engine's ordering heuristics
+     * @return the names of the heuristics in the combination
+     */
+    private static String name(int ordering) {
+        if (ordering == 0) {
+            return "left to right";
+        }
+        StringBuilder name = new StringBuilder();
+        String[] names = {"centre", "table", "killers", "history"};
+        int[] flags = {Engine.CENTRE_ORDER, Engine.TABLE_MOVE, Engine.KILLER_MOVES, Engine.HISTORY};
+        for (int i = 0; i < flags.length; i++) {
+            if ((ordering & flags[i]) != 0) {
+                name.append(name.length() > 0 ? "+" : "").append(names[i]);
+            }
+        }
+        return name.toString();
+    }
+
+    /**
+     * position
+     * @param moves - the columns played from the empty board, player first
+     * @return the board after those moves
+     */
+    private static Bitboard position(String moves) {
+        Bitboard board = new Bitboard();
+        for (int i = 0; i < moves.length(); i++) {
+            board.play(moves.charAt(i) - '0', i % 2 == 0);
+        }
+        return board;
+    }
+
+}//End of class MoveOrderingReport
@@ -0,0 +1,176 @@
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * MoveStrategy
+ * This interface chooses moves for one side of a game, so that different ways of playing can be played against each
+ * other without a user interface (see Tournament).
+ * A strategy may keep state between moves, so each thread playing games needs a strategy of its own.
+ *
+ * Strategies are named as:
+ *   random   - any legal column
+ *   greedy   - wins if it can, blocks the opponent's win, avoids setting one up, otherwise prefers the centre
+ *   search:N - the search engine at depth N
+ *   computer - the computer player of the game: the opening book, the endgame database, then the engine at its
+ *              default depth
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public interface MoveStrategy {
+
+    /**
+     * chooseMove
+     * @param board - the current board, which must not be changed
+     * @param player - true if the move is for the player, false for the computer
+     * @param random - the game's random number generator, for strategies that make random choices
+     * @return the column to play, which must be playable
+     */
+    int chooseMove(Bitboard board, boolean player, Random random);
+
+    /**
+     * newGame
+     * This method is called before each game, so strategies can forget what they learned in the last one
+     */
+    default void newGame() {
+    }
+
+    /**
+     * forName
+     * @param name - random, greedy, search:N or computer
+     * @return a new strategy of that name
+     */
+    static MoveStrategy forName(String name) {
+        if (name.equals("random")) {
+            return random();
+        } else if (name.equals("greedy")) {
+            return greedy();
+        } else if (name.startsWith("search:")) {
+            return search(Integer.parseInt(name.substring(7)));
+        } else if (name.equals("computer")) {
+            return computer();
+        }
+        throw new IllegalArgumentException("Unknown strategy " + name + ", use random, greedy, search:N or computer");
+    }
+
+    /**
+     * random
+     * @return a strategy that plays any legal column
+     */
+    static MoveStrategy random() {
+        return (board, player, random) -> {
+            int col;
+            do {
+                col = random.nextInt(Bitboard.WIDTH);
+            } while (!board.canPlay(col));
+            return col;
+        };
+    }
+
+    /**
+     * greedy
+     * @return a strategy that looks one move ahead for each side
+     */
+    static MoveStrategy greedy() {
+        return (board, player, random) -> {
+            for (int col = 0; col < Bitboard.WIDTH; col++) { // Win straight away
+                if (board.canPlay(col) && board.isWinningMove(col, player)) {
+                    return col;
+                }
+            }
+            for (int col = 0; col < Bitboard.WIDTH; col++) { // Stop the opponent winning straight away
+                if (board.canPlay(col) && board.isWinningMove(col, !player)) {
+                    return col;
+                }
+            }
+            // Otherwise pick at random, weighted towards the centre, from the moves that do not let the opponent win
+            // on top of them
+            int best = -1;
+            int bestWeight = -1;
+            for (int col = 0; col < Bitboard.WIDTH; col++) {
+                if (!board.canPlay(col)) {
+                    continue;
+                }
+                int weight = (givesWinAbove(board, col, player) ? 0 : 64)
+                    + (4 - Math.abs(col - Bitboard.WIDTH / 2)) * 4 + random.nextInt(8);
+                if (weight > bestWeight) {
+                    best = col;
+                    bestWeight = weight;
+                }
+            }
+            return best;
+        };
+    }
+
+    /**
+     * givesWinAbove
+     * @param board - the current board, which is changed and put back
+     * @param col - the column to play
+     * @param player - true if the move is for the player
+     * @return true if playing the column lets the opponent win by playing on top of it
+     */
+    static boolean givesWinAbove(Bitboard board, int col, boolean player) {
+        board.play(col, player);
+        boolean wins = board.canPlay(col) && board.isWinningMove(col, !player);
+        board.unplay(col);
+        return wins;
+    }
+
+    /**
+     * search
+     * @param depth - the search depth
+     * @return a strategy that plays the search engine's best move, with a small table cleared before each game
+     */
+    static MoveStrategy search(int depth) {
+        final Engine engine = new Engine(depth, new TranspositionTable(1));
+        return new MoveStrategy() {
+            @Override
+            public int chooseMove(Bitboard board, boolean player, Random random) {
+                return engine.search(board, player).getColumn();
+            }
+
+            @Override
+            public void newGame() {
+                engine.getTable().clear(); // Every game starts from the same table, so games can be repeated
+            }
+        };
+    }
+
+    /**
+     * computer
+     * @return a strategy that plays like ConnectFour.generateComputerMove, using the opening book and the endgame
+     * database when they hold the position
+     */
+    static MoveStrategy computer() {
+        final MoveStrategy engine = search(Engine.DEFAULT_DEPTH);
+        return new MoveStrategy() {
+            @Override
+            public int chooseMove(Bitboard board, boolean player, Random random) {
+                OpeningBook book = OpeningBook.getDefault();
+                if (book != null && board.getMoveCount() <= book.getPlies()) {
+                    int col = book.bestMove(board, player);
+                    if (col >= 0 && board.canPlay(col)) {
+                        return col;
+                    }
+                }
+                EndgameDatabase endgame = EndgameDatabase.getDefault();
+                if (endgame != null && Bitboard.WIDTH * Bitboard.HEIGHT - board.getMoveCount() <= endgame.getMaxEmpty()) {
+                    try {
+                        SearchResult solved = endgame.lookup(board, player);
+                        if (solved != null && board.canPlay(solved.getColumn())) {
+                            return solved.getColumn();
+                        }
+                    } catch (IOException e) {
+                        System.err.println("Error while reading the endgame database: " + e.getMessage());
+                    }
+                }
+                return engine.chooseMove(board, player, random);
+            }
+
+            @Override
+            public void newGame() {
+                engine.newGame();
+            }
+        };
+    }
+
+}//End of interface MoveStrategy
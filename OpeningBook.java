@@ -0,0 +1,315 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OpeningBook
+ * This class holds the precomputed best moves for the first plies of the game, so the computer does not have to search
+ * the opening positions, which are the most expensive ones and are always the same.
+ *
+ * The book is a binary file of fixed size records sorted by position key. At runtime the file is memory-mapped and
+ * looked up with a binary search, so opening it reads only the header, it takes no space on the heap and several
+ * processes using the same book share it through the operating system's page cache.
+ *
+ * A position and its mirror image share one record under the canonical key (see Bitboard.canonicalKey), which halves
+ * the size of the book. The best column is stored for whichever of the two has the smaller key.
+ *
+ * File layout (big-endian):
+ *   header  - magic "C4OB", version, board width, board height, plies covered, search depth, record count
+ *   records - canonical position key (8 bytes), score (4 bytes), best column (1 byte), unused (3 bytes)
+ * Version 1 books have a record for every position under its own key, and can still be opened.
+ *
+ * Generate a book with: java OpeningBook [file] [plies] [depth] [threads]
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class OpeningBook {
+    public static final String DEFAULT_FILE = "opening_book.bin"; // Book the game looks for in the working directory
+    private static final int MAGIC = 0x43344F42; // "C4OB"
+    private static final int VERSION = 2;
+    private static final int UNMIRRORED_VERSION = 1; // Books written before positions were shared with their mirror
+    private static final int HEADER_SIZE = 7 * Integer.BYTES;
+    private static final int RECORD_SIZE = 16;
+
+    private static OpeningBook defaultBook; // The book opened from DEFAULT_FILE, shared by every game
+    private static boolean defaultLoaded;   // Set once the default book has been looked for
+
+    private final MappedByteBuffer buffer; // The mapped book file
+    private final boolean canonical; // True if the records are keyed by canonical key, false for version 1 books
+    private final int plies;   // The number of plies from the empty board covered by the book
+    private final int depth;   // The search depth used to build the book
+    private final int records; // The number of positions in the book
+
+    /**
+     * Constructor for OpeningBook class.
+     * Use open to read a book from a file.
+     */
+    private OpeningBook(MappedByteBuffer buffer, boolean canonical, int plies, int depth, int records) {
+        this.buffer = buffer;
+        this.canonical = canonical;
+        this.plies = plies;
+        this.depth = depth;
+        this.records = records;
+    }
+
+    /**
+     * open
+     * This method maps a book file into memory, only the header is read
+     * @param fileName - the book file
+     * @return the opening book
+     * @throws IOException if the file cannot be read or is not a book for this board
+     */
+    public static OpeningBook open(String fileName) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "r");
+        FileChannel channel = file.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException(fileName + " is not an opening book");
+            }
+            if (buffer.getInt(4) != VERSION && buffer.getInt(4) != UNMIRRORED_VERSION) {
+                throw new IOException("Unsupported opening book version " + buffer.getInt(4));
+            }
+            if (buffer.getInt(8) != Bitboard.WIDTH || buffer.getInt(12) != Bitboard.HEIGHT) {
+                throw new IOException("Opening book is for a " + buffer.getInt(8) + "x" + buffer.getInt(12) + " board");
+            }
+            int records = buffer.getInt(24);
+            if ((long) HEADER_SIZE + (long) records * RECORD_SIZE > buffer.capacity()) {
+                throw new IOException("Opening book " + fileName + " is truncated");
+            }
+            return new OpeningBook(buffer, buffer.getInt(4) == VERSION, buffer.getInt(16), buffer.getInt(20), records);
+        }
+    }
+
+    /**
+     * getDefault
+     * This method opens the book in DEFAULT_FILE the first time it is asked for, and shares it from then on
+     * @return the default opening book, or null if there is no usable book file
+     */
+    public static synchronized OpeningBook getDefault() {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            if (new File(DEFAULT_FILE).exists()) {
+                try {
+                    defaultBook = open(DEFAULT_FILE);
+                } catch (IOException e) {
+                    System.err.println("Error while opening the opening book: " + e.getMessage());
+                }
+            }
+        }
+        return defaultBook;
+    }
+
+    /**
+     * bestMove
+     * This method looks up the best column for the side to move
+     * @param board - the current board
+     * @param player - true if the player is to move, false if the computer is
+     * @return the best column, or -1 if the position is not in the book
+     */
+    public int bestMove(Bitboard board, boolean player) {
+        long key = key(board, player);
+        if (!canonical) {
+            int record = find(key);
+            return record < 0 ? -1 : getColumn(record);
+        }
+        long canonicalKey = Bitboard.canonicalKey(key);
+        int record = find(canonicalKey);
+        if (record < 0) {
+            return -1;
+        }
+        return canonicalKey == key ? getColumn(record) : Bitboard.mirrorColumn(getColumn(record));
+    }
+
+    /**
+     * find
+     * This method binary searches the mapped records for a position
+     * @param key - the position key, which must be the canonical key unless the book is a version 1 book
+     * @return the record number, or -1 if the position is not in the book
+     */
+    public int find(long key) {
+        int low = 0;
+        int high = records - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = buffer.getLong(HEADER_SIZE + mid * RECORD_SIZE);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * getScore
+     * @param record - a record number returned by find
+     * @return the score of the position for the side to move
+     */
+    public int getScore(int record) {
+        return buffer.getInt(HEADER_SIZE + record * RECORD_SIZE + 8);
+    }
+
+    /**
+     * getColumn
+     * @param record - a record number returned by find
+     * @return the best column for the side to move
+     */
+    public int getColumn(int record) {
+        return buffer.get(HEADER_SIZE + record * RECORD_SIZE + 12);
+    }
+
+    /**
+     * getPlies
+     * @return the number of plies from the empty board covered by the book
+     */
+    public int getPlies() {
+        return plies;
+    }
+
+    /**
+     * getDepth
+     * @return the search depth used to build the book
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * size
+     * @return the number of positions in the book
+     */
+    public int size() {
+        return records;
+    }
+
+    /**
+     * key
+     * @param board - the current board
+     * @param player - true if the player is to move, false if the computer is
+     * @return the position's key, as used by the Engine before the canonical key is taken
+     */
+    public static long key(Bitboard board, boolean player) {
+        long current = player ? board.getPlayerMask() : board.getComputerMask();
+        long mask = board.getPlayerMask() | board.getComputerMask();
+        return current + mask + Bitboard.BOTTOM_MASK;
+    }
+
+    /**
+     * generate
+     * This method searches every position up to the given number of plies from the empty board and writes the book.
+     * Positions where the game is already won are left out.
+     * @param fileName - the book file to write
+     * @param plies - the number of plies from the empty board to cover
+     * @param depth - the search depth for each position
+     * @param threads - the number of positions searched at once
+     * @throws IOException if the book cannot be written
+     */
+    public static void generate(String fileName, int plies, int depth, int threads) throws IOException {
+        // Collect the canonical position keys, then sort them and remove duplicates reached by different move orders
+        // or as mirror images
+        long[][] found = {new long[1024]};
+        int count = collect(0, 0, 0, plies, found, 0);
+        final long[] keys = Arrays.copyOf(found[0], count);
+        Arrays.sort(keys);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || keys[i] != keys[unique - 1]) {
+                keys[unique++] = keys[i];
+            }
+        }
+
+        // Search each position, each thread with an engine of its own, all sharing one transposition table
+        final int total = unique;
+        final int[] scores = new int[total];
+        final byte[] columns = new byte[total];
+        final AtomicInteger next = new AtomicInteger();
+        final TranspositionTable table = new TranspositionTable();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                Engine engine = new Engine(depth, table);
+                for (int i = next.getAndIncrement(); i < total; i = next.getAndIncrement()) {
+                    long mask = Bitboard.maskOf(keys[i]);
+                    long current = (keys[i] - Bitboard.BOTTOM_MASK) - mask;
+                    SearchResult result = engine.search(current, mask, Long.bitCount(mask));
+                    scores[i] = result.getScore();
+                    columns[i] = (byte) result.getColumn();
+                }
+            });
+        }
+        pool.shutdown();
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Book generation was interrupted");
+        }
+
+        // Write the header and the records in key order
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + total * RECORD_SIZE);
+        out.putInt(MAGIC).putInt(VERSION).putInt(Bitboard.WIDTH).putInt(Bitboard.HEIGHT)
+            .putInt(plies).putInt(depth).putInt(total);
+        for (int i = 0; i < total; i++) {
+            out.putLong(keys[i]).putInt(scores[i]).put(columns[i]).put((byte) 0).putShort((short) 0);
+        }
+        out.flip();
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+        FileChannel channel = file.getChannel()) {
+            channel.truncate(0);
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    /**
+     * collect
+     * This method walks every game from the given position and records the key of each position that is not yet won
+     * @return the number of keys recorded so far
+     */
+    private static int collect(long current, long mask, int moves, int plies, long[][] keys, int count) {
+        if (count == keys[0].length) {
+            keys[0] = Arrays.copyOf(keys[0], count * 2);
+        }
+        keys[0][count++] = Bitboard.canonicalKey(current + mask + Bitboard.BOTTOM_MASK);
+        if (moves == plies) {
+            return count;
+        }
+        for (int col = 0; col < Bitboard.WIDTH; col++) {
+            long move = (mask + Bitboard.BOTTOM_MASK) & Bitboard.columnMask(col);
+            if (move != 0 && !Bitboard.isWin(current | move)) {
+                count = collect(current ^ mask, mask | move, moves + 1, plies, keys, count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Main method - generates an opening book
+     * @param args - optional file name, plies, search depth and number of threads
+     */
+    public static void main(String[] args) throws IOException {
+        String fileName = args.length > 0 ? args[0] : DEFAULT_FILE;
+        int plies = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.currentTimeMillis();
+        generate(fileName, plies, depth, threads);
+        OpeningBook book = open(fileName);
+        System.out.println("Wrote " + book.size() + " positions up to ply " + plies + " at depth " + depth
+            + " to " + fileName + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+}//End of class OpeningBook
@@ -0,0 +1,143 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft
+ * This class counts every legal continuation of a game to a fixed number of plies ("performance test").
+ * A continuation ends early when a move wins, so it only counts if the win comes on the last ply.
+ * The counts give a fixed amount of work for timing move generation and win detection, and the known counts from the
+ * empty board catch any change to the move or win code that alters the rules.
+ *
+ * Run with: java Perft [depth] [threads]
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class Perft extends RecursiveTask<Long> {
+    // Known counts from the empty 7x6 board, indexed by depth
+    public static final long[] KNOWN_COUNTS = {
+        1L, 7L, 49L, 343L, 2401L, 16807L, 117649L, 823536L, 5673234L, 39394572L, 268031646L, 1844590828L
+    };
+    private static final int SPLIT_DEPTH = 5; // Subtrees this deep or shallower are counted on one thread
+
+    private final Bitboard board; // The position to count from, owned by this task
+    private final boolean player; // True if the player is to move
+    private final int depth;      // The number of plies to count
+
+    /**
+     * Constructor for Perft class.
+     * @param board - the position to count from, which the task will change while counting
+     * @param player - true if the player is to move
+     * @param depth - the number of plies to count
+     */
+    private Perft(Bitboard board, boolean player, int depth) {
+        this.board = board;
+        this.player = player;
+        this.depth = depth;
+    }
+
+    /**
+     * count
+     * This method counts the continuations on the caller's thread. The board is changed while counting and put back.
+     * @param board - the position to count from
+     * @param player - true if the player is to move
+     * @param depth - the number of plies to count
+     * @return the number of continuations
+     */
+    public static long count(Bitboard board, boolean player, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long nodes = 0;
+        for (int col = 0; col < Bitboard.WIDTH; col++) {
+            if (!board.canPlay(col)) {
+                continue;
+            }
+            if (depth == 1) {
+                nodes++; // Every legal last move counts, winning or not
+            } else if (!board.isWinningMove(col, player)) { // A win before the last ply ends the game
+                board.play(col, player);
+                nodes += count(board, !player, depth - 1);
+                board.unplay(col);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * countParallel
+     * This method counts the continuations, splitting the subtrees across a ForkJoinPool
+     * @param board - the position to count from, which is left unchanged
+     * @param player - true if the player is to move
+     * @param depth - the number of plies to count
+     * @param threads - the number of threads to count with
+     * @return the number of continuations
+     */
+    public static long countParallel(Bitboard board, boolean player, int depth, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new Perft(board.copy(), player, depth));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * compute
+     * This method counts this task's subtree, forking one task per move until the subtrees are small
+     * @return the number of continuations
+     */
+    @Override
+    protected Long compute() {
+        if (depth <= SPLIT_DEPTH) {
+            return count(board, player, depth);
+        }
+        Perft[] tasks = new Perft[Bitboard.WIDTH];
+        for (int col = 0; col < Bitboard.WIDTH; col++) {
+            if (board.canPlay(col) && !board.isWinningMove(col, player)) {
+                Bitboard next = board.copy();
+                next.play(col, player);
+                tasks[col] = new Perft(next, !player, depth - 1);
+                tasks[col].fork();
+            }
+        }
+        long nodes = 0;
+        for (Perft task : tasks) {
+            if (task != null) {
+                nodes += task.join();
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Main method - counts from the empty board at every depth up to the one given, printing the speed and checking
+     * the counts against the known ones
+     * @param args - optional depth and number of threads
+     */
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        boolean allCorrect = true;
+
+        System.out.println("depth            nodes     time ms      nodes/s   check");
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long nodes = threads > 1 ? countParallel(new Bitboard(), true, depth, threads)
+                : count(new Bitboard(), true, depth);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            String check = "-";
+            if (depth < KNOWN_COUNTS.length) {
+                boolean correct = nodes == KNOWN_COUNTS[depth];
+                allCorrect &= correct;
+                check = correct ? "ok" : "WRONG, expected " + KNOWN_COUNTS[depth];
+            }
+            System.out.println(String.format("%5d %16d %11.1f %12.0f   %s", depth, nodes, seconds * 1000,
+                    nodes / Math.max(seconds, 1e-9), check));
+        }
+        if (!allCorrect) {
+            System.exit(1);
+        }
+    }
+
+}//End of class Perft
@@ -0,0 +1,196 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Ponderer
+ * This class uses the time the player spends thinking. For each move the player could make it searches the computer's
+ * reply on a background thread, with the same depth, evaluator and ordering as the game's engine and sharing its
+ * transposition table. When the player moves, the search for that move is used straight away if it finished, and the
+ * rest of the pondering is stopped. If it did not finish, the engine's own search starts from a table already filled
+ * with the position's subtree.
+ *
+ * Table results are only used at exactly the depth they were searched to (see Engine), so a pondered reply is the same
+ * column and score the engine would have found itself; pondering only changes how long the computer takes.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class Ponderer {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "ponder");
+        thread.setDaemon(true); // Pondering never keeps the game running
+        thread.setPriority(Thread.MIN_PRIORITY); // The user interface comes first
+        return thread;
+    });
+    private final Engine engine = new Engine(Engine.DEFAULT_DEPTH, 0, new ThreatEvaluator()); // Searches the replies
+    private final long[] keys = new long[Bitboard.WIDTH];              // The position each reply was searched in
+    private final SearchResult[] results = new SearchResult[Bitboard.WIDTH]; // The replies found, null if not yet
+    private final long[] nanos = new long[Bitboard.WIDTH];             // The time each reply's search took
+    private final long[] tableHits = new long[Bitboard.WIDTH];         // The table probes in it that found their position
+    private final long[] tableProbes = new long[Bitboard.WIDTH];       // The table probes in it
+    private Future<?> task;            // The pondering running, null if there is none
+    private volatile boolean cancelled; // Set to stop pondering, so a search cut short is not kept
+    private Evaluator evaluator;       // The settings the replies were searched with
+    private int depth;
+    private long nodeLimit;
+    private TranspositionTable table;
+    private int hits;                  // Computer moves that used a pondered reply
+    private int misses;                // Computer moves that had to be searched after pondering
+
+    /**
+     * start
+     * This method stops any pondering and starts searching the computer's reply to each of the given player moves
+     * @param board - the position with the player to move, which is copied
+     * @param columns - the player moves to ponder, the likeliest first
+     * @param settings - the game's engine, whose depth, evaluator, ordering and table are used
+     */
+    public synchronized void start(Bitboard board, int[] columns, Engine settings) {
+        halt();
+        synchronized (results) {
+            for (int col = 0; col < results.length; col++) {
+                results[col] = null;
+            }
+        }
+        evaluator = settings.getEvaluator();
+        depth = settings.getMaxDepth();
+        nodeLimit = settings.getNodeLimit();
+        table = settings.getTable();
+        engine.setEvaluator(evaluator);
+        engine.setMaxDepth(depth);
+        engine.setNodeLimit(nodeLimit);
+        engine.setTable(table);
+        engine.setOrdering(settings.getOrdering());
+        cancelled = false;
+        final Bitboard position = board.copy();
+        final int[] order = columns.clone();
+        task = executor.submit(() -> ponder(position, order));
+    }
+
+    /**
+     * finish
+     * This method stops pondering and returns the reply found for the position, if it was pondered to the end.
+     * The search that found the reply is recorded in the metrics, as the engine's own search would have been.
+     * @param position - the position with the computer to move, after the player's move
+     * @param settings - the engine that would otherwise search the position
+     * @param metrics - records the search behind the reply, if there is one
+     * @return the pondered reply, or null if the position must be searched
+     */
+    public synchronized SearchResult finish(Bitboard position, Engine settings, EngineMetrics metrics) {
+        halt();
+        SearchResult found = null;
+        if (settings.getEvaluator() == evaluator && settings.getMaxDepth() == depth
+                && settings.getNodeLimit() == nodeLimit && settings.getTable() == table) {
+            synchronized (results) {
+                for (int col = 0; col < results.length && found == null; col++) {
+                    if (results[col] != null && keys[col] == position.key()) {
+                        found = results[col];
+                        metrics.recordSearch(found, nanos[col], tableHits[col], tableProbes[col]);
+                    }
+                }
+            }
+        }
+        if (found != null) {
+            hits++;
+        } else if (task != null) {
+            misses++;
+        }
+        task = null;
+        return found;
+    }
+
+    /**
+     * stop
+     * This method stops pondering, e.g. when the game is cleared or a move is undone
+     */
+    public synchronized void stop() {
+        halt();
+        task = null;
+    }
+
+    /**
+     * shutdown
+     * This method stops pondering for good and ends the pondering thread
+     */
+    public synchronized void shutdown() {
+        stop();
+        executor.shutdown();
+    }
+
+    /**
+     * getHits
+     * @return the number of computer moves that used a pondered reply
+     */
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    /**
+     * getMisses
+     * @return the number of computer moves that had been pondered for but still had to be searched
+     */
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    /**
+     * ponder
+     * This method searches the computer's reply to each player move in turn, on the pondering thread
+     * @param board - the position with the player to move
+     * @param columns - the player moves to ponder
+     */
+    private void ponder(Bitboard board, int[] columns) {
+        for (int col : columns) {
+            if (cancelled) {
+                return;
+            }
+            board.play(col, true);
+            long hitsBefore = table == null ? 0 : table.getHits();
+            long probesBefore = table == null ? 0 : hitsBefore + table.getMisses();
+            long start = System.nanoTime();
+            SearchResult reply = engine.search(board, false);
+            long time = System.nanoTime() - start;
+            long key = board.key();
+            board.unplay(col);
+            if (cancelled) {
+                return; // The search may have been cut short
+            }
+            synchronized (results) {
+                keys[col] = key;
+                results[col] = reply;
+                nanos[col] = time;
+                tableHits[col] = table == null ? 0 : table.getHits() - hitsBefore;
+                tableProbes[col] = table == null ? 0 : table.getHits() + table.getMisses() - probesBefore;
+            }
+        }
+    }
+
+    /**
+     * halt
+     * This method stops the pondering thread and waits for it. The stop is repeated until the thread has finished, in
+     * case it was between searches when first asked.
+     */
+    private void halt() {
+        cancelled = true;
+        if (task == null) {
+            return;
+        }
+        while (!task.isDone()) {
+            engine.stop();
+            try {
+                task.get(1, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Still searching, stop it again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                System.err.println("Error while pondering: " + e.getCause());
+                return;
+            }
+        }
+    }
+
+}//End of class Ponderer
@@ -0,0 +1,252 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PositionAnalyzer
+ * This class finds the best move in many positions without a user interface, e.g. to run a set of positions through
+ * the engine in a shell pipeline (see ConnectFourUI --analyze). Each line of input is a position written as the
+ * columns played from the empty board, counting from 1 as in "4453221"; anything after the moves, such as the rest
+ * of a game record, is ignored, as are empty lines and lines starting with #.
+ *
+ * For each position one line is written, in the same order as the input:
+ *   moves column score depth nodes
+ * the best column counting from 1, its score for the side to move (see Engine), the depth searched and the positions
+ * visited. A position that cannot be analysed, e.g. one with an illegal move, a finished game or a budget too small
+ * to finish the first depth, gives the line
+ *   moves ? reason
+ *
+ * The positions are shared out across a pool of worker threads, each with its own engine, and searched to the depth,
+ * node or time budget given. The engines share one transposition table, which only uses results searched to exactly
+ * the same depth (see Engine), so the table adds no memory per thread and never changes a fixed-depth answer.
+ * Results that finish early wait in a reorder buffer until the lines before them have been written, and one thread
+ * writes them all through the one buffered writer, so the output is the same however many threads there are (apart
+ * from the node counts, and the depths reached under a time budget). Only as many positions as fit in the reorder
+ * buffer are read ahead, so memory use stays the same however long the input.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class PositionAnalyzer {
+    private static final int WINDOW_PER_THREAD = 256; // Positions read ahead for each worker thread
+
+    private final int depth;      // The deepest each search will look, in plies
+    private final long nodeLimit; // The number of positions each search may visit, 0 for no limit
+    private final long timeLimit; // The milliseconds each search may take, 0 for no limit
+    private final int threads;    // The number of worker threads
+
+    private String[] ready;       // The reorder buffer, holding finished lines until their turn to be written
+    private long total;           // The number of positions read, or -1 while input is still being read
+    private IOException readError; // The error that stopped the input being read, null if there was none
+
+    /**
+     * Constructor for PositionAnalyzer class.
+     * @param depth - the deepest each search will look, in plies
+     * @param nodeLimit - the number of positions each search may visit, 0 for no limit
+     * @param timeLimit - the milliseconds each search may take, 0 for no limit
+     * @param threads - the number of worker threads
+     */
+    public PositionAnalyzer(int depth, long nodeLimit, long timeLimit, int threads) {
+        if (depth < 1 || nodeLimit < 0 || timeLimit < 0 || threads < 1) {
+            throw new IllegalArgumentException("The depth and threads must be at least 1 and the limits at least 0");
+        }
+        this.depth = depth;
+        this.nodeLimit = nodeLimit;
+        this.timeLimit = timeLimit;
+        this.threads = threads;
+    }
+
+    /**
+     * analyze
+     * This method analyses every position in the input and writes a line for each, in input order. The output is
+     * flushed whenever the next line is not ready yet, so results appear as soon as they can be written in order.
+     * Only one analysis may run at a time on each analyzer.
+     * @param in - the positions, one a line
+     * @param out - where to write the results
+     * @return the number of positions analysed
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    public long analyze(BufferedReader in, Writer out) throws IOException {
+        final int window = threads * WINDOW_PER_THREAD;
+        final Semaphore free = new Semaphore(window); // Slots free in the reorder buffer
+        final AtomicInteger workers = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "analyze-" + workers.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        final ScheduledExecutorService timer = timeLimit == 0 ? null : Executors.newSingleThreadScheduledExecutor(
+            task -> {
+                Thread thread = new Thread(task, "analyze-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        final TranspositionTable table = new TranspositionTable();
+        final ThreadLocal<Engine> engines = ThreadLocal.withInitial(() -> {
+            Engine engine = new Engine(depth, nodeLimit, new ThreatEvaluator());
+            engine.setTable(table);
+            return engine;
+        });
+        ready = new String[window];
+        total = -1;
+        readError = null;
+
+        // Read on a thread of its own, handing each position to the pool once there is room for its result
+        Thread reader = new Thread(() -> {
+            long count = 0;
+            try {
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    free.acquire();
+                    final long index = count++;
+                    final String position = line;
+                    pool.execute(() -> {
+                        String result = position + " ? not analysed";
+                        try {
+                            result = analyzeLine(position, engines.get(), timer);
+                        } finally {
+                            finished(index, result, window); // Never leave a gap in the reorder buffer
+                        }
+                    });
+                }
+            } catch (IOException e) {
+                readError = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                finishedReading(count);
+            }
+        }, "analyze-input");
+        reader.setDaemon(true);
+        reader.start();
+
+        long written = 0;
+        try {
+            while (true) {
+                String line = next(written, window, false);
+                if (line == null) {
+                    out.flush(); // Show what is done before waiting for the rest
+                    line = next(written, window, true);
+                    if (line == null) {
+                        break;
+                    }
+                }
+                out.write(line);
+                out.write('\n');
+                written++;
+                free.release();
+            }
+            out.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+            if (timer != null) {
+                timer.shutdownNow();
+            }
+        }
+        if (readError != null) {
+            throw readError;
+        }
+        return written;
+    }
+
+    /**
+     * analyzeLine
+     * This method finds the best move in one position, on a worker thread
+     * @param line - the position, as the columns played counting from 1
+     * @param engine - the worker's engine
+     * @param timer - stops searches that run out of time, null if there is no time limit
+     * @return the line to write for the position
+     */
+    private String analyzeLine(String line, Engine engine, ScheduledExecutorService timer) {
+        int end = line.indexOf(' ');
+        String moves = end < 0 ? line : line.substring(0, end);
+        try {
+            Bitboard board = new Bitboard();
+            boolean player = true; // The side to move, the player moving first
+            for (int i = 0; i < moves.length() && !(i == 0 && moves.equals("-")); i++) {
+                int col = GameRecordWriter.COLUMN_CHARS.indexOf(moves.charAt(i));
+                if (col < 0 || col >= Bitboard.WIDTH || !board.canPlay(col)) {
+                    return moves + " ? illegal move " + moves.charAt(i) + " at move " + (i + 1);
+                } else if (board.hasWon(!player)) {
+                    return moves + " ? move " + (i + 1) + " is after the game was won";
+                }
+                board.play(col, player);
+                player = !player;
+            }
+            if (board.hasWon(!player) || board.isFull()) {
+                return moves + " ? the game is over";
+            }
+
+            ScheduledFuture<?> stop = timer == null ? null
+                : timer.schedule(engine::stop, timeLimit, TimeUnit.MILLISECONDS);
+            SearchResult result = engine.search(board, player);
+            if (stop != null && !stop.cancel(false)) {
+                stop.get(); // Let a stop that has started land before the engine's next search, not during it
+            }
+            if (result.getDepth() == 0) {
+                return moves + " ? budget exhausted"; // Only a guess, not searched to any depth
+            }
+            return moves + " " + (result.getColumn() + 1) + " " + result.getScore() + " " + result.getDepth()
+                + " " + result.getNodes();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return moves + " ? interrupted";
+        } catch (ExecutionException | RuntimeException e) {
+            return moves + " ? " + e;
+        }
+    }
+
+    /**
+     * finished
+     * This method puts a finished line into the reorder buffer
+     * @param index - the position's place in the input, counting from 0
+     * @param line - the line to write for it
+     * @param window - the size of the reorder buffer
+     */
+    private synchronized void finished(long index, String line, int window) {
+        ready[(int) (index % window)] = line;
+        notifyAll();
+    }
+
+    /**
+     * finishedReading
+     * @param count - the number of positions read
+     */
+    private synchronized void finishedReading(long count) {
+        total = count;
+        notifyAll();
+    }
+
+    /**
+     * next
+     * This method takes the next line to write out of the reorder buffer
+     * @param index - the position's place in the input, counting from 0
+     * @param window - the size of the reorder buffer
+     * @param wait - true to wait for the line, false to return null if it is not ready yet
+     * @return the line, or null if it is not ready or every line has been written
+     */
+    private synchronized String next(long index, int window, boolean wait) throws InterruptedException {
+        int slot = (int) (index % window);
+        while (ready[slot] == null) {
+            if (!wait || (total >= 0 && index >= total)) {
+                return null;
+            }
+            wait();
+        }
+        String line = ready[slot];
+        ready[slot] = null;
+        return line;
+    }
+
+}//End of class PositionAnalyzer
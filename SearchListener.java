@@ -0,0 +1,17 @@
+/**
+ * SearchListener
+ * This interface is told how a search by the Engine is going, e.g. to show the computer's progress while it thinks.
+ * It is called on the thread running the search, so a user interface must hand the result over to its own thread.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public interface SearchListener {
+
+    /**
+     * depthCompleted
+     * This method is called each time the search finishes another depth
+     * @param result - the best column and score so far, the depth just finished and the positions visited so far
+     */
+    void depthCompleted(SearchResult result);
+
+}//End of interface SearchListener
@@ -0,0 +1,64 @@
+/**
+ * SearchResult
+ * This class holds the outcome of a search by the Engine: the column to play, its score and how much work it took.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class SearchResult {
+    private final int column; // The best column found, or -1 if there was no legal move
+    private final int score;  // The score of that column for the side that was to move
+    private final int depth;  // The deepest search that was completed
+    private final long nodes; // The number of positions visited
+
+    /**
+     * Constructor for SearchResult class.
+     * @param column - the best column found
+     * @param score - the score of that column
+     * @param depth - the deepest search that was completed
+     * @param nodes - the number of positions visited
+     */
+    public SearchResult(int column, int score, int depth, long nodes) {
+        this.column = column;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+    }
+
+    /**
+     * getColumn
+     * @return the best column found, or -1 if there was no legal move
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * getScore
+     * @return the score of the best column for the side that was to move
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * getDepth
+     * @return the deepest search that was completed
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * getNodes
+     * @return the number of positions visited
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public String toString() {
+        return "column " + column + ", score " + score + ", depth " + depth + ", nodes " + nodes;
+    }
+
+}//End of class SearchResult
@@ -1,29 +1,54 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable; // Import for the Serializable interface
-import java.util.Observable;
 
 
 /**
  * Slot
- * This class handles the state of each slot in the game. Extending observable in preparation for the addition of a GUI.
+ * This class handles the state of each slot in the game.
+ * A slot is a view onto one cell of the game's Bitboard, so reading or changing it reads or changes the board itself.
+ * Changing a slot directly is not announced; a user interface should listen to the game instead (see GameListener).
  * @author MGC https://github.com/mgc-00/ 07/02/2025
 */ 
 
-public class Slot extends Observable implements Serializable {
-    private String state; // The current state of the slot
+public class Slot implements Serializable {
+    private static final long serialVersionUID = 956196969724026582L; // Kept from the original Slot so old saves load
+    // Serialized in the original form, the state as a String, so old saves and Java serialization still work
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("state", String.class),
+        new ObjectStreamField("row", int.class),
+        new ObjectStreamField("col", int.class)
+    };
+
+    private transient GameBoard board; // The board holding the state of the slot
     private int row, col; // The row and column number of the slot 
 
     // Constructor of the class Slot
     /**
      * Constructor of the class Slot
-     * This creates the slot and denotes where it is placed in the game board.
+     * This creates an empty slot on a board of its own and denotes where it is placed in the game board.
      * 
      * @param col - the slot's column number
      * @param row - the slot's row number
      */
     public Slot(int col, int row) {
+        this(new Bitboard(), col, row); // Initialize the slot's state to be empty
+    }
+
+    /**
+     * Constructor of the class Slot
+     * This creates a slot that views a cell of an existing board.
+     * 
+     * @param board - the board holding the slot's state
+     * @param col - the slot's column number
+     * @param row - the slot's row number
+     */
+    public Slot(GameBoard board, int col, int row) {
+        this.board = board; // Set the board that stores the slot's state
         this.row = row; // Set the row number of the slot
         this.col = col; // Set the column number of the slot
-        this.state = ConnectFour.EMPTYSLOT; // Initialize the slot's state to be empty
     }
 
     /**
@@ -33,7 +58,7 @@ public class Slot extends Observable implements Serializable {
      */
     public void setState(String newState) {
         if (isValidState(newState)) { // Check if the new state is valid
-            this.state = newState; // Set the current state to the new state
+            board.setState(col, row, newState); // Set the current state to the new state
         }
     }
 
@@ -43,7 +68,7 @@ public class Slot extends Observable implements Serializable {
      * @return the current state of the slot
      */
     public String getState() {
-        return state; // Return the current state of the slot
+        return board.getState(col, row); // Return the current state of the slot
     }
 
     /**
@@ -60,4 +85,33 @@ public class Slot extends Observable implements Serializable {
             return false; // The state is not valid
         }
     }  
+
+    /**
+     * writeObject
+     * This method writes the slot in its original serialized form
+     * @param out - the stream to write to
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("state", getState());
+        fields.put("row", row);
+        fields.put("col", col);
+        out.writeFields();
+    }
+
+    /**
+     * readObject
+     * This method reads a slot in its original serialized form, onto a board of its own
+     * @param in - the stream to read from
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        row = fields.get("row", 0);
+        col = fields.get("col", 0);
+        board = new Bitboard();
+        String state = (String) fields.get("state", ConnectFour.EMPTYSLOT);
+        if (state != null && isValidState(state)) {
+            board.setState(col, row, state);
+        }
+    }
 }//End of class Slot
@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SpeedupReport
+ * This class measures how much faster the Engine finds the computer's move with more search threads.
+ * Every position in a fixed set is searched to the same depth with 1, 2, 4... threads up to the number asked for,
+ * each with a fresh table, and the time is compared with the single-threaded search.
+ * It also checks that every thread count returned the same column and score.
+ *
+ * Run with: java SpeedupReport [depth] [max threads] [table MB]
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class SpeedupReport {
+    // Positions as the columns played from the empty board, player first
+    private static final String[] POSITIONS = {
+        "", "3", "33", "3332", "2345", "332412", "3322114", "43322", "1233444", "0123456"
+    };
+
+    /**
+     * Main method - runs the report and prints it to the console
+     * @param args - optional depth, maximum number of threads and table size in MB
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int tableMb = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        System.out.println("Depth " + depth + ", " + POSITIONS.length + " positions, " + tableMb + " MB table");
+        System.out.println("threads      time ms        nodes    speedup   same result");
+
+        List<Integer> threadCounts = new ArrayList<>(); // Powers of two below the maximum, then the maximum
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(Math.max(1, maxThreads));
+
+        SearchResult[] baseline = null;
+        double baseTime = 0;
+        for (int threads : threadCounts) {
+            SearchResult[] results = new SearchResult[POSITIONS.length];
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < POSITIONS.length; i++) {
+                Engine engine = new Engine(depth, new TranspositionTable(tableMb));
+                engine.setThreads(threads);
+                results[i] = engine.search(position(POSITIONS[i]), POSITIONS[i].length() % 2 == 0);
+                nodes += results[i].getNodes();
+                engine.shutdown();
+            }
+            double time = (System.nanoTime() - start) / 1e6;
+
+            boolean same = true;
+            if (baseline == null) {
+                baseline = results;
+                baseTime = time;
+            }
+            for (int i = 0; i < POSITIONS.length; i++) {
+                same &= results[i].getColumn() == baseline[i].getColumn()
+                    && results[i].getScore() == baseline[i].getScore();
+            }
+            System.out.println(String.format("%7d %12.1f %12d %10.2f   %s", threads, time, nodes, baseTime / time,
+                    same ? "yes" : "NO"));
+        }
+    }
+
+    /**
+     * position
+     * @param moves - the columns played from the empty board, player first
+     * @return the board after those moves
+     */
+    private static Bitboard position(String moves) {
+        Bitboard board = new Bitboard();
+        for (int i = 0; i < moves.length(); i++) {
+            board.play(moves.charAt(i) - '0', i % 2 == 0);
+        }
+        return board;
+    }
+
+}//End of class SpeedupReport
@@ -0,0 +1,29 @@
+/**
+ * ThreatEvaluator
+ * This class is the default Evaluator. It counts the empty cells where each side is one disc away from four in a row,
+ * and gives a little extra weight to discs in the centre column, which take part in the most lines.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class ThreatEvaluator implements Evaluator {
+    private static final int THREAT_WEIGHT = 16; // Score for each cell that would complete four in a row
+    private static final int CENTER_WEIGHT = 3;  // Score for each disc in the centre column
+    private static final long CENTER_MASK = Bitboard.columnMask(Bitboard.WIDTH / 2); // Every cell of the centre column
+
+    /**
+     * evaluate
+     * This method scores a position from the point of view of the side about to move
+     * @param current - the mask of the discs belonging to the side about to move
+     * @param mask - the mask of every occupied cell
+     * @return the score, positive when the side about to move is better off
+     */
+    @Override
+    public int evaluate(long current, long mask) {
+        long opponent = current ^ mask; // Discs belonging to the side that has just moved
+        int threats = Long.bitCount(Bitboard.winningCells(current, mask))
+            - Long.bitCount(Bitboard.winningCells(opponent, mask));
+        int center = Long.bitCount(current & CENTER_MASK) - Long.bitCount(opponent & CENTER_MASK);
+        return THREAT_WEIGHT * threats + CENTER_WEIGHT * center;
+    }
+
+}//End of class ThreatEvaluator
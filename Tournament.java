@@ -0,0 +1,197 @@
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tournament
+ * This class plays two move strategies against each other for many games without a user interface, to measure how a
+ * change to the computer player affects its results and speed.
+ *
+ * The games are shared out across a pool of worker threads, each with its own pair of strategies. The strategies take
+ * turns to move first, and the first plies of each game are played at random so the games differ. Each game has its
+ * own random number generator seeded from the tournament seed and the game number, so a tournament gives the same
+ * results however many threads play it.
+ *
+ * Run with: java Tournament [strategy A] [strategy B] [games] [threads] [seed] [random opening plies]
+ * where a strategy is random, greedy, search:N or computer (see MoveStrategy)
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class Tournament {
+    public static final int WIN_A = 0; // Outcome of a game won by strategy A
+    public static final int DRAW = 1;  // Outcome of a drawn game
+    public static final int WIN_B = 2; // Outcome of a game won by strategy B
+
+    private final String strategyA;  // The name of the first strategy
+    private final String strategyB;  // The name of the second strategy
+    private final long seed;         // The seed every game's random number generator is made from
+    private final int openingPlies;  // The number of random moves at the start of each game
+
+    private final LongAdder[] outcomes = {new LongAdder(), new LongAdder(), new LongAdder()}; // Indexed by outcome
+    private final LongAdder[] moves = {new LongAdder(), new LongAdder()}; // Moves chosen by A and by B
+    private final LongAdder[] moveNanos = {new LongAdder(), new LongAdder()}; // Time A and B took to choose them
+    private long elapsedNanos; // Wall clock time spent playing
+
+    /**
+     * Constructor for Tournament class.
+     * @param strategyA - the name of the first strategy
+     * @param strategyB - the name of the second strategy
+     * @param seed - the seed every game's random number generator is made from
+     * @param openingPlies - the number of random moves at the start of each game
+     */
+    public Tournament(String strategyA, String strategyB, long seed, int openingPlies) {
+        MoveStrategy.forName(strategyA); // Check both names before any games are played
+        MoveStrategy.forName(strategyB);
+        this.strategyA = strategyA;
+        this.strategyB = strategyB;
+        this.seed = seed;
+        this.openingPlies = openingPlies;
+    }
+
+    /**
+     * play
+     * This method plays a number of games on a pool of worker threads and adds them to the results
+     * @param games - the number of games to play
+     * @param threads - the number of worker threads
+     */
+    public void play(final int games, int threads) {
+        final AtomicInteger next = new AtomicInteger();
+        final int first = (int) getGames(); // Numbering carries on from earlier calls
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                MoveStrategy a = MoveStrategy.forName(strategyA);
+                MoveStrategy b = MoveStrategy.forName(strategyB);
+                long[] counts = new long[4]; // Moves and nanoseconds for A, then for B, added up once at the end
+                for (int i = next.getAndIncrement(); i < games; i = next.getAndIncrement()) {
+                    outcomes[playGame(a, b, first + i, counts)].increment();
+                }
+                moves[0].add(counts[0]);
+                moveNanos[0].add(counts[1]);
+                moves[1].add(counts[2]);
+                moveNanos[1].add(counts[3]);
+            });
+        }
+        pool.shutdown();
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        elapsedNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * playGame
+     * This method plays one game. Strategy A moves first in even numbered games and strategy B in odd ones.
+     * @param a - strategy A
+     * @param b - strategy B
+     * @param number - the game number, which seeds the game's random number generator
+     * @param counts - moves and nanoseconds for A, then for B, which this game's moves are added to
+     * @return WIN_A, DRAW or WIN_B
+     */
+    public int playGame(MoveStrategy a, MoveStrategy b, long number, long[] counts) {
+        Random random = new Random(seed + number * 0x9E3779B97F4A7C15L);
+        boolean aIsPlayer = number % 2 == 0; // The side that moves first is the game's player
+        a.newGame();
+        b.newGame();
+
+        Bitboard board = new Bitboard();
+        boolean player = true;
+        while (true) {
+            boolean aToMove = player == aIsPlayer;
+            int col;
+            if (board.getMoveCount() < openingPlies) {
+                col = MoveStrategy.random().chooseMove(board, player, random);
+            } else {
+                long start = System.nanoTime();
+                col = (aToMove ? a : b).chooseMove(board, player, random);
+                int side = aToMove ? 0 : 2;
+                counts[side]++;
+                counts[side + 1] += System.nanoTime() - start;
+            }
+
+            if (board.isWinningMove(col, player)) {
+                return aToMove ? WIN_A : WIN_B;
+            }
+            board.play(col, player);
+            if (board.isFull()) {
+                return DRAW;
+            }
+            player = !player;
+        }
+    }
+
+    /**
+     * getGames
+     * @return the number of games played
+     */
+    public long getGames() {
+        return outcomes[WIN_A].sum() + outcomes[DRAW].sum() + outcomes[WIN_B].sum();
+    }
+
+    /**
+     * getCount
+     * @param outcome - WIN_A, DRAW or WIN_B
+     * @return the number of games that ended that way
+     */
+    public long getCount(int outcome) {
+        return outcomes[outcome].sum();
+    }
+
+    /**
+     * getGamesPerSecond
+     * @return the number of games played per second of wall clock time
+     */
+    public double getGamesPerSecond() {
+        return getGames() / Math.max(elapsedNanos / 1e9, 1e-9);
+    }
+
+    /**
+     * getAverageMoveMicros
+     * @param side - 0 for strategy A, 1 for strategy B
+     * @return the average time the strategy took to choose a move, in microseconds
+     */
+    public double getAverageMoveMicros(int side) {
+        return moveNanos[side].sum() / 1000.0 / Math.max(moves[side].sum(), 1);
+    }
+
+    /**
+     * report
+     * @return the results as text: wins, draws and losses, speed and move latency
+     */
+    public String report() {
+        long games = getGames();
+        double percent = 100.0 / Math.max(games, 1);
+        return String.format("%s vs %s: %d games in %.1f s%n", strategyA, strategyB, games, elapsedNanos / 1e9)
+            + String.format("  %s wins %d (%.1f%%), draws %d (%.1f%%), %s wins %d (%.1f%%)%n",
+                strategyA, getCount(WIN_A), getCount(WIN_A) * percent, getCount(DRAW), getCount(DRAW) * percent,
+                strategyB, getCount(WIN_B), getCount(WIN_B) * percent)
+            + String.format("  %.1f games/s (%.0f games/hour)%n", getGamesPerSecond(), getGamesPerSecond() * 3600)
+            + String.format("  average move: %s %.1f us, %s %.1f us", strategyA, getAverageMoveMicros(0),
+                strategyB, getAverageMoveMicros(1));
+    }
+
+    /**
+     * Main method - plays a tournament and prints the report
+     * @param args - optional strategies A and B, number of games, threads, seed and random opening plies
+     */
+    public static void main(String[] args) {
+        String strategyA = args.length > 0 ? args[0] : "computer";
+        String strategyB = args.length > 1 ? args[1] : "greedy";
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 20250207L;
+        int openingPlies = args.length > 5 ? Integer.parseInt(args[5]) : 2;
+
+        Tournament tournament = new Tournament(strategyA, strategyB, seed, openingPlies);
+        tournament.play(games, threads);
+        System.out.println(tournament.report());
+    }
+
+}//End of class Tournament
@@ -0,0 +1,214 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TranspositionTable
+ * This class remembers the results of positions the Engine has already searched, so that a position reached again
+ * through a different order of moves does not have to be searched a second time.
+ *
+ * Everything is stored in one preallocated long[]. The table is split into buckets of two entries and each entry takes
+ * two longs: the position key and a packed word holding the score, depth, bound and best move. The first entry of a
+ * bucket keeps the deepest result seen (depth-preferred), the second is always overwritten by the newest result.
+ *
+ * The table can be shared by several search threads without locking. The key word of each entry is stored XORed with
+ * its data word, so an entry torn by two threads writing at once no longer matches its key and reads as a miss.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class TranspositionTable {
+    public static final int DEFAULT_SIZE_MB = 16; // Table size used by the Engine unless told otherwise
+
+    public static final int EXACT = 1; // The stored score is the exact score of the position
+    public static final int LOWER = 2; // The position scores at least the stored score (the search failed high)
+    public static final int UPPER = 3; // The position scores at most the stored score (the search failed low)
+
+    private static final int LONGS_PER_BUCKET = 4; // Two entries of key and data
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L; // Spreads position keys over the buckets
+
+    private final long[] table; // Keys and packed data, bucket after bucket
+    private final int bucketMask; // Number of buckets minus one, the number of buckets is a power of two
+    private final LongAdder hits = new LongAdder();   // Probes that found the position
+    private final LongAdder misses = new LongAdder(); // Probes that did not find the position
+    private final LongAdder stores = new LongAdder(); // Results written into the table
+
+    /**
+     * Constructor for TranspositionTable class.
+     * Creates a table of the default size
+     */
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * Constructor for TranspositionTable class.
+     * The size is rounded down to a power of two number of buckets, with at least one bucket.
+     * @param sizeMb - the memory to use for the table, in megabytes
+     */
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb < 1) {
+            throw new IllegalArgumentException("Table size must be at least 1 MB");
+        }
+        long buckets = ((long) sizeMb << 20) / (LONGS_PER_BUCKET * Long.BYTES);
+        buckets = Math.min(Long.highestOneBit(buckets), 1L << 28); // Keeps the array within Java's size limit
+        table = new long[(int) buckets * LONGS_PER_BUCKET];
+        bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * probe
+     * This method looks up a position
+     * @param key - the position key
+     * @return the packed data stored for the position, or 0 if it is not in the table
+     */
+    public long probe(long key) {
+        int index = index(key);
+        long data = table[index + 1];
+        if (data != 0 && (table[index] ^ data) == key) {
+            hits.increment();
+            return data;
+        }
+        data = table[index + 3];
+        if (data != 0 && (table[index + 2] ^ data) == key) {
+            hits.increment();
+            return data;
+        }
+        misses.increment();
+        return 0;
+    }
+
+    /**
+     * store
+     * This method records the result of a search. The deeper of the old and new results keeps the first entry of the
+     * bucket, and anything else goes into the second entry.
+     * @param key - the position key
+     * @param score - the score of the position
+     * @param depth - the depth that was searched
+     * @param bound - EXACT, LOWER or UPPER
+     * @param move - the best column found, or -1 if none
+     */
+    public void store(long key, int score, int depth, int bound, int move) {
+        int index = index(key);
+        long data = pack(score, depth, bound, move);
+        stores.increment();
+        long first = table[index + 1];
+        if (first == 0 || (table[index] ^ first) == key || depth >= depth(first)) {
+            table[index] = key ^ data;
+            table[index + 1] = data;
+        } else {
+            table[index + 2] = key ^ data;
+            table[index + 3] = data;
+        }
+    }
+
+    /**
+     * clear
+     * This method empties the table and resets its counters
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        hits.reset();
+        misses.reset();
+        stores.reset();
+    }
+
+    /**
+     * pack
+     * This method packs a result into one long: the score in the low 32 bits, then 8 bits of depth,
+     * 2 bits of bound and 4 bits of move (the column plus one, so that 0 means no move).
+     * @return the packed data, which is never 0
+     */
+    public static long pack(int score, int depth, int bound, int move) {
+        return (score & 0xFFFFFFFFL)
+            | ((long) (depth & 0xFF) << 32)
+            | ((long) (bound & 0x3) << 40)
+            | ((long) ((move + 1) & 0xF) << 42);
+    }
+
+    /**
+     * score
+     * @param data - packed data returned by probe
+     * @return the stored score
+     */
+    public static int score(long data) {
+        return (int) data;
+    }
+
+    /**
+     * depth
+     * @param data - packed data returned by probe
+     * @return the depth that was searched
+     */
+    public static int depth(long data) {
+        return (int) (data >>> 32) & 0xFF;
+    }
+
+    /**
+     * bound
+     * @param data - packed data returned by probe
+     * @return EXACT, LOWER or UPPER
+     */
+    public static int bound(long data) {
+        return (int) (data >>> 40) & 0x3;
+    }
+
+    /**
+     * move
+     * @param data - packed data returned by probe
+     * @return the stored best column, or -1 if none
+     */
+    public static int move(long data) {
+        return ((int) (data >>> 42) & 0xF) - 1;
+    }
+
+    /**
+     * getHits
+     * @return the number of probes that found the position
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * getMisses
+     * @return the number of probes that did not find the position
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * getStores
+     * @return the number of results written into the table
+     */
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * getHitRate
+     * @return the fraction of probes that found the position, 0 if there were none
+     */
+    public double getHitRate() {
+        long found = hits.sum();
+        long probes = found + misses.sum();
+        return probes == 0 ? 0 : (double) found / probes;
+    }
+
+    /**
+     * getSizeBytes
+     * @return the memory used by the table's entries
+     */
+    public long getSizeBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    /**
+     * index
+     * @param key - the position key
+     * @return the array index of the bucket holding the position
+     */
+    private int index(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> 32 & bucketMask) * LONGS_PER_BUCKET;
+    }
+
+}//End of class TranspositionTable
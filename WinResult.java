@@ -0,0 +1,140 @@
+/**
+ * WinResult
+ * This class describes the outcome of a win check: who has won, which slots make up the winning line and in which
+ * direction it runs, or whether the game has ended in a draw.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class WinResult {
+    public static final String HORIZONTAL = "horizontal"; // A winning line along a row
+    public static final String VERTICAL = "vertical";     // A winning line down a column
+    public static final String DIAGONAL_DOWN = "diagonal, top-left to bottom-right"; // A falling diagonal line
+    public static final String DIAGONAL_UP = "diagonal, bottom-left to top-right";   // A rising diagonal line
+
+    public static final WinResult NONE = new WinResult(null, null, 0, false); // The game is still going
+    public static final WinResult DRAW = new WinResult(null, null, 0, true);  // The board is full and nobody has won
+
+    private final String winner;    // PLAYERMOVE or COMPUTERMOVE, or null if nobody has won
+    private final String direction; // The direction of the winning line, or null if nobody has won
+    private final long cells;       // The Bitboard mask of the winning slots
+    private final int[][] cellList; // The winning slots as {column, row} pairs, null to work them out from the mask
+    private final int connect;      // The number of discs in a row needed to win
+    private final boolean draw;     // True if the board is full and nobody has won
+
+    /**
+     * Constructor for WinResult class.
+     * @param winner - PLAYERMOVE or COMPUTERMOVE, or null if nobody has won
+     * @param direction - the direction of the winning line
+     * @param cells - the Bitboard mask of the winning slots
+     * @param draw - true if the board is full and nobody has won
+     */
+    public WinResult(String winner, String direction, long cells, boolean draw) {
+        this.winner = winner;
+        this.direction = direction;
+        this.cells = cells;
+        this.cellList = null;
+        this.connect = Bitboard.CONNECT;
+        this.draw = draw;
+    }
+
+    /**
+     * Constructor for WinResult class.
+     * This is for a win on a board of any size, which has no Bitboard mask
+     * @param winner - PLAYERMOVE or COMPUTERMOVE
+     * @param direction - the direction of the winning line
+     * @param cellList - the winning slots as {column, row} pairs
+     * @param connect - the number of discs in a row needed to win
+     */
+    public WinResult(String winner, String direction, int[][] cellList, int connect) {
+        this.winner = winner;
+        this.direction = direction;
+        this.cells = 0;
+        this.cellList = cellList;
+        this.connect = connect;
+        this.draw = false;
+    }
+
+    /**
+     * isWin
+     * @return true if somebody has won
+     */
+    public boolean isWin() {
+        return winner != null;
+    }
+
+    /**
+     * isDraw
+     * @return true if the board is full and nobody has won
+     */
+    public boolean isDraw() {
+        return draw;
+    }
+
+    /**
+     * isGameOver
+     * @return true if the game has been won or drawn
+     */
+    public boolean isGameOver() {
+        return winner != null || draw;
+    }
+
+    /**
+     * getWinner
+     * @return PLAYERMOVE or COMPUTERMOVE, or null if nobody has won
+     */
+    public String getWinner() {
+        return winner;
+    }
+
+    /**
+     * getDirection
+     * @return HORIZONTAL, VERTICAL, DIAGONAL_DOWN or DIAGONAL_UP, or null if nobody has won
+     */
+    public String getDirection() {
+        return direction;
+    }
+
+    /**
+     * getCellMask
+     * @return the Bitboard mask of the winning slots, 0 for a win on a board of another size
+     */
+    public long getCellMask() {
+        return cells;
+    }
+
+    /**
+     * getCells
+     * This method lists the winning slots as {column, row} pairs, using the same row numbering as Slot
+     * @return the winning slots, empty if nobody has won
+     */
+    public int[][] getCells() {
+        if (cellList != null) {
+            return cellList;
+        }
+        int[][] list = new int[Long.bitCount(cells)][];
+        long remaining = cells;
+        for (int i = 0; i < list.length; i++) {
+            int bit = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            list[i] = new int[] {bit / Bitboard.STRIDE, Bitboard.HEIGHT - 1 - bit % Bitboard.STRIDE};
+        }
+        return list;
+    }
+
+    /**
+     * getMessage
+     * This method provides the message the game shows for this result
+     * @return the message, or null if the game is still going
+     */
+    public String getMessage() {
+        if (ConnectFour.PLAYERMOVE.equals(winner)) {
+            return "YOU have won the game with " + connect + " in a row, congratulations!!";
+        } else if (ConnectFour.COMPUTERMOVE.equals(winner)) {
+            return "COMPUTER has won the game with " + connect + " in a row, tough luck!!";
+        } else if (draw) {
+            return "The board is full, the game is a draw!!";
+        }
+        return null;
+    }
+
+}//End of class WinResult
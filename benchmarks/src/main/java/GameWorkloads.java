@@ -0,0 +1,658 @@
+import benchmarks.Workload;
+import benchmarks.WorkloadFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+/**
+ * GameWorkloads
+ * This class holds the game work measured by the JMH benchmarks. It lives in the default package next to the game
+ * classes so it can call them directly, and the benchmarks reach it through the Workload interface.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+
+public class GameWorkloads implements WorkloadFactory {
+    private static final int POSITIONS = 64; // Number of mid-game positions used by the win check workloads
+    private static final long SEED = 20250207L; // Fixed seed so every run measures the same positions
+
+    /**
+     * create
+     * @param name - the name of the workload
+     * @param param - the workload's parameter, e.g. the search depth
+     * @return the workload
+     */
+    @Override
+    public Workload create(String name, int param) {
+        switch (name) {
+            case "playUnplay":
+                return playUnplay();
+            case "addUndo":
+                return addUndo();
+            case "addUndoJournaled":
+                return addUndoJournaled();
+            case "undoRedo":
+                return undoRedo();
+            case "findRow":
+                return findRow();
+            case "checkWinAt":
+                return checkWinAt();
+            case "hasWon":
+                return hasWon();
+            case "checkWinString":
+                return checkWinString();
+            case "gridCheckWinAt":
+                return gridCheckWinAt(param);
+            case "gridHasWon":
+                return gridHasWon(param);
+            case "gridMove":
+                return gridMove(param);
+            case "batchCheckWins":
+                return batchCheckWins(param);
+            case "checkWinLoop":
+                return checkWinLoop(param);
+            case "batchEvaluate":
+                return batchEvaluate(param);
+            case "evaluateLoop":
+                return evaluateLoop(param);
+            case "search":
+                return search(param);
+            case "computerMove":
+                return computerMove(param);
+            case "codec":
+                return codec();
+            case "codecArchive":
+                return codecArchive(param);
+            case "recordArchive":
+                return recordArchive(param);
+            case "serialize":
+                return serialize();
+            case "game":
+                return game(param, true);
+            case "gameUnmeasured":
+                return game(param, false);
+            case "perft":
+                return perft(param);
+            default:
+                throw new IllegalArgumentException("Unknown workload " + name);
+        }
+    }
+
+    /**
+     * playUnplay
+     * @return a workload that drops a game's worth of discs into a Bitboard and takes them out again
+     */
+    private Workload playUnplay() {
+        final int[] columns = playableColumns(SEED, 30);
+        final Bitboard board = new Bitboard();
+        return () -> {
+            for (int i = 0; i < columns.length; i++) {
+                board.play(columns[i], i % 2 == 0);
+            }
+            int count = board.getMoveCount();
+            for (int i = columns.length - 1; i >= 0; i--) {
+                board.unplay(columns[i]);
+            }
+            return count;
+        };
+    }
+
+    /**
+     * addUndo
+     * @return a workload that plays player and computer moves through ConnectFour and undoes them
+     */
+    private Workload addUndo() {
+        final ConnectFour game = new ConnectFour();
+        return () -> {
+            for (int col = 0; col < Bitboard.WIDTH; col++) {
+                game.addMove(col, true);
+                game.addMove(col, false);
+            }
+            int count = game.getBoard().getMoveCount();
+            for (int col = 0; col < Bitboard.WIDTH; col++) {
+                game.undoMove();
+            }
+            return count;
+        };
+    }
+
+    /**
+     * addUndoJournaled
+     * @return the addUndo workload on a game recording every change in a MoveJournal in a temporary file
+     */
+    private Workload addUndoJournaled() {
+        try {
+            File file = File.createTempFile("journal", ".c4j");
+            file.deleteOnExit();
+            file.delete(); // The journal starts a new game when there is no file
+            final ConnectFour game = new ConnectFour();
+            game.setJournal(new MoveJournal(file.getPath()));
+            return () -> {
+                for (int col = 0; col < Bitboard.WIDTH; col++) {
+                    game.addMove(col, true);
+                    game.addMove(col, false);
+                }
+                int count = game.getBoard().getMoveCount();
+                for (int col = 0; col < Bitboard.WIDTH; col++) {
+                    game.undoMove();
+                }
+                return count;
+            };
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * undoRedo
+     * @return a workload that steps a 24 move game back to the empty board and forward to the end again
+     */
+    private Workload undoRedo() {
+        final ConnectFour game = replay(playableColumns(SEED, 24));
+        final int end = game.getPly();
+        return () -> {
+            game.jumpToPly(0);
+            game.jumpToPly(end);
+            return game.getPly();
+        };
+    }
+
+    /**
+     * findRow
+     * @return a workload that finds the free row of every column on mid-game boards
+     */
+    private Workload findRow() {
+        final ConnectFour[] games = midGames();
+        return () -> {
+            int sum = 0;
+            for (ConnectFour game : games) {
+                for (int col = 0; col < Bitboard.WIDTH; col++) {
+                    sum += game.findRow(col);
+                }
+            }
+            return sum;
+        };
+    }
+
+    /**
+     * checkWinAt
+     * @return a workload that checks the lines through the last disc of mid-game boards
+     */
+    private Workload checkWinAt() {
+        final ConnectFour[] games = midGames();
+        return () -> {
+            int wins = 0;
+            for (ConnectFour game : games) {
+                if (game.getBoard().checkWinAt(game.getHistory().lastColumn()).isWin()) {
+                    wins++;
+                }
+            }
+            return wins;
+        };
+    }
+
+    /**
+     * hasWon
+     * @return a workload that shift-tests both sides of mid-game boards
+     */
+    private Workload hasWon() {
+        final ConnectFour[] games = midGames();
+        return () -> {
+            int wins = 0;
+            for (ConnectFour game : games) {
+                if (game.getBoard().hasWon(true) || game.getBoard().hasWon(false)) {
+                    wins++;
+                }
+            }
+            return wins;
+        };
+    }
+
+    /**
+     * checkWinString
+     * @return a workload that calls the String checkWin used by the user interfaces
+     */
+    private Workload checkWinString() {
+        final ConnectFour[] games = midGames();
+        return () -> {
+            int wins = 0;
+            for (ConnectFour game : games) {
+                if (game.checkWin() != null) {
+                    wins++;
+                }
+            }
+            return wins;
+        };
+    }
+
+    /**
+     * batchCheckWins
+     * @param count - the number of positions
+     * @return a workload that checks a batch of mid-game positions for wins with BatchEvaluator
+     */
+    private Workload batchCheckWins(int count) {
+        final BatchEvaluator batch = batch(count);
+        final byte[] results = new byte[count];
+        return () -> {
+            batch.checkWins(results);
+            return results[0] + results[count - 1];
+        };
+    }
+
+    /**
+     * checkWinLoop
+     * @param count - the number of positions
+     * @return a workload that calls checkWin on each of a set of mid-game ConnectFour games
+     */
+    private Workload checkWinLoop(int count) {
+        final ConnectFour[] games = midGames(count);
+        return () -> {
+            int wins = 0;
+            for (ConnectFour game : games) {
+                if (game.checkWin() != null) {
+                    wins++;
+                }
+            }
+            return wins;
+        };
+    }
+
+    /**
+     * batchEvaluate
+     * @param count - the number of positions
+     * @return a workload that scores a batch of mid-game positions with BatchEvaluator
+     */
+    private Workload batchEvaluate(int count) {
+        final BatchEvaluator batch = batch(count);
+        final int[] scores = new int[count];
+        return () -> {
+            batch.evaluate(scores);
+            return scores[0] + scores[count - 1];
+        };
+    }
+
+    /**
+     * evaluateLoop
+     * @param count - the number of positions
+     * @return a workload that scores each of a set of mid-game ConnectFour games with the ThreatEvaluator
+     */
+    private Workload evaluateLoop(int count) {
+        final ConnectFour[] games = midGames(count);
+        final Evaluator evaluator = new ThreatEvaluator();
+        return () -> {
+            int sum = 0;
+            for (ConnectFour game : games) {
+                Bitboard board = game.getBitboard();
+                long current = game.isPlayerToMove() ? board.getPlayerMask() : board.getComputerMask();
+                sum += evaluator.evaluate(current, board.getPlayerMask() | board.getComputerMask());
+            }
+            return sum;
+        };
+    }
+
+    /**
+     * batch
+     * @param count - the number of positions
+     * @return a BatchEvaluator holding the mid-game positions
+     */
+    private static BatchEvaluator batch(int count) {
+        BatchEvaluator batch = new BatchEvaluator(count);
+        for (ConnectFour game : midGames(count)) {
+            batch.add(game.getBitboard());
+        }
+        return batch;
+    }
+
+    /**
+     * search
+     * @param depth - the search depth
+     * @return a workload that searches a mid-game position from an empty transposition table
+     */
+    private Workload search(int depth) {
+        final Engine engine = new Engine(depth);
+        engine.setTable(new TranspositionTable(4));
+        final Bitboard board = midGames()[0].getBitboard();
+        return new Workload() {
+            @Override
+            public int run() {
+                return engine.search(board, true).getColumn();
+            }
+
+            @Override
+            public void reset() {
+                engine.getTable().clear();
+            }
+        };
+    }
+
+    /**
+     * computerMove
+     * @param depth - the search depth
+     * @return a workload that makes the computer's move on a fresh copy of a mid-game
+     */
+    private Workload computerMove(int depth) {
+        final Engine engine = new Engine(depth);
+        engine.setTable(new TranspositionTable(4));
+        final int[] columns = playableColumns(SEED);
+        final ConnectFour[] game = new ConnectFour[1];
+        return new Workload() {
+            @Override
+            public int run() {
+                game[0].generateComputerMove();
+                return game[0].getHistory().lastColumn();
+            }
+
+            @Override
+            public void reset() {
+                game[0] = replay(columns);
+                game[0].setEngine(engine);
+                engine.getTable().clear();
+            }
+        };
+    }
+
+    /**
+     * codec
+     * @return a workload that saves a mid-game to bytes with GameCodec and loads it back
+     */
+    private Workload codec() {
+        final ConnectFour game = midGames()[0];
+        return () -> {
+            try {
+                byte[] bytes = GameCodec.encode(game);
+                return GameCodec.decode(ByteBuffer.wrap(bytes)).getBoard().getMoveCount() + bytes.length;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * codecArchive
+     * @param count - the number of games in the archive
+     * @return a workload that encodes an archive of mid-games into one buffer and decodes every game again
+     */
+    private Workload codecArchive(int count) {
+        final ConnectFour[] positions = midGames();
+        final ConnectFour[] games = new ConnectFour[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            games[i] = positions[i % positions.length];
+            size += GameCodec.encodedSize(games[i]);
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        return () -> {
+            try {
+                buffer.clear();
+                for (ConnectFour game : games) {
+                    GameCodec.encode(game, buffer);
+                }
+                buffer.flip();
+                int moves = 0;
+                while (buffer.hasRemaining()) {
+                    moves += GameCodec.decode(buffer).getBoard().getMoveCount();
+                }
+                return moves;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * recordArchive
+     * @param count - the number of games in the archive
+     * @return a workload that writes an archive of mid-games as text game records and reads every record back
+     */
+    private Workload recordArchive(int count) {
+        final ConnectFour[] positions = midGames();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        return () -> {
+            try {
+                bytes.reset();
+                GameRecordWriter writer = new GameRecordWriter(Channels.newChannel(bytes));
+                for (int i = 0; i < count; i++) {
+                    writer.write(positions[i % positions.length]);
+                }
+                writer.flush();
+                GameRecordReader reader = new GameRecordReader(Channels.newChannel(
+                    new ByteArrayInputStream(bytes.toByteArray())));
+                int moves = 0;
+                while (reader.next()) {
+                    moves += reader.getMoveCount();
+                }
+                return moves;
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * serialize
+     * @return a workload that saves a mid-game to bytes with Java serialization and loads it back
+     */
+    private Workload serialize() {
+        final ConnectFour game = midGames()[0];
+        return () -> {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeObject(game);
+                }
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                    return ((ConnectFour) in.readObject()).getBoard().getMoveCount() + bytes.size();
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * game
+     * @param depth - the computer's search depth
+     * @param metrics - true to record the game in the EngineMetrics, false with metrics switched off
+     * @return a workload that plays a whole game of a random player against the computer
+     */
+    private Workload game(int depth, boolean metrics) {
+        EngineMetrics.getDefault().setEnabled(metrics); // Each benchmark runs in a JVM of its own
+        final Engine engine = new Engine(depth);
+        engine.setTable(new TranspositionTable(4));
+        final Random random = new Random(SEED);
+        return () -> {
+            ConnectFour game = new ConnectFour();
+            game.setEngine(engine);
+            while (true) {
+                int col;
+                do {
+                    col = random.nextInt(Bitboard.WIDTH);
+                } while (!game.getBoard().canPlay(col));
+                game.addMove(col, true);
+                if (game.getWinResult().isGameOver()) {
+                    break;
+                }
+                game.generateComputerMove();
+                if (game.getWinResult().isGameOver()) {
+                    break;
+                }
+            }
+            return game.getBoard().getMoveCount();
+        };
+    }
+
+    /**
+     * perft
+     * @param depth - the number of plies to count
+     * @return a workload that counts every continuation from the empty board
+     */
+    private Workload perft(int depth) {
+        final ConnectFour game = new ConnectFour();
+        return () -> (int) game.perft(depth);
+    }
+
+    /**
+     * midGames
+     * @return the same set of mid-game positions on every call, none of them won
+     */
+    private static ConnectFour[] midGames() {
+        return midGames(POSITIONS);
+    }
+
+    /**
+     * midGames
+     * @param count - the number of positions
+     * @return the same set of mid-game positions on every call, none of them won
+     */
+    private static ConnectFour[] midGames(int count) {
+        ConnectFour[] games = new ConnectFour[count];
+        for (int i = 0; i < count; i++) {
+            games[i] = replay(playableColumns(SEED + i));
+        }
+        return games;
+    }
+
+    /**
+     * playableColumns
+     * @param seed - the random seed
+     * @return 12 to 24 random columns that can be played from the empty board without anybody winning
+     */
+    private static int[] playableColumns(long seed) {
+        return playableColumns(seed, 12 + new Random(seed).nextInt(13));
+    }
+
+    /**
+     * playableColumns
+     * @param seed - the random seed
+     * @param length - the number of moves
+     * @return random columns that can be played from the empty board without anybody winning
+     */
+    private static int[] playableColumns(long seed, int length) {
+        Random random = new Random(seed);
+        while (true) {
+            int[] columns = gameColumns(random, length);
+            if (columns != null) {
+                return columns;
+            }
+        }
+    }
+
+    /**
+     * gridBoards
+     * @param size - the number of columns and rows
+     * @return boards of that size with five in a row to win (four on small boards), a quarter full with nobody winning
+     */
+    private static GridBoard[] gridBoards(int size) {
+        Random random = new Random(SEED);
+        GridBoard[] boards = new GridBoard[POSITIONS];
+        for (int i = 0; i < boards.length; i++) {
+            GridBoard board = new GridBoard(size, size, size < 8 ? 4 : 5);
+            boolean player = true;
+            for (int moves = size * size / 4; moves > 0; moves--) {
+                int col = random.nextInt(size);
+                if (board.canPlay(col) && !board.isWinningMove(col, player)) {
+                    board.play(col, player);
+                    player = !player;
+                }
+            }
+            boards[i] = board;
+        }
+        return boards;
+    }
+
+    /**
+     * gridCheckWinAt
+     * @param size - the number of columns and rows
+     * @return a workload that checks the lines through the top disc of every column of large boards
+     */
+    private Workload gridCheckWinAt(int size) {
+        final GridBoard[] boards = gridBoards(size);
+        return () -> {
+            int wins = 0;
+            for (GridBoard board : boards) {
+                for (int col = 0; col < board.getColumns(); col++) {
+                    if (board.checkWinAt(col).isWin()) {
+                        wins++;
+                    }
+                }
+            }
+            return wins;
+        };
+    }
+
+    /**
+     * gridHasWon
+     * @param size - the number of columns and rows
+     * @return a workload that checks both sides of large boards for a line anywhere with the line masks
+     */
+    private Workload gridHasWon(int size) {
+        final GridBoard[] boards = gridBoards(size);
+        return () -> {
+            int wins = 0;
+            for (GridBoard board : boards) {
+                if (board.hasWon(true) || board.hasWon(false)) {
+                    wins++;
+                }
+            }
+            return wins;
+        };
+    }
+
+    /**
+     * gridMove
+     * @param size - the number of columns and rows
+     * @return a workload that chooses the computer's move on large boards
+     */
+    private Workload gridMove(int size) {
+        final GridBoard[] boards = gridBoards(size);
+        return () -> {
+            int sum = 0;
+            for (GridBoard board : boards) {
+                sum += GridEngine.chooseMove(board, false);
+            }
+            return sum;
+        };
+    }
+
+    /**
+     * gameColumns
+     * @param random - the random number generator
+     * @param length - the number of moves
+     * @return random columns that can be played from the empty board without anybody winning, or null if a game was won
+     */
+    private static int[] gameColumns(Random random, int length) {
+        Bitboard board = new Bitboard();
+        int[] columns = new int[length];
+        for (int i = 0; i < length; i++) {
+            int col;
+            do {
+                col = random.nextInt(Bitboard.WIDTH);
+            } while (!board.canPlay(col));
+            if (board.isWinningMove(col, i % 2 == 0)) {
+                return null;
+            }
+            board.play(col, i % 2 == 0);
+            columns[i] = col;
+        }
+        return columns;
+    }
+
+    /**
+     * replay
+     * @param columns - the columns to play, player first
+     * @return a new game with those moves made
+     */
+    private static ConnectFour replay(int[] columns) {
+        ConnectFour game = new ConnectFour();
+        for (int i = 0; i < columns.length; i++) {
+            game.replayMove(columns[i], i % 2 == 0);
+        }
+        return game;
+    }
+
+}//End of class GameWorkloads
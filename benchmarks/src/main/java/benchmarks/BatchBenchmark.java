@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BatchBenchmark
+ * Measures checking and scoring 4096 mid-game positions, per position: BatchEvaluator over parallel mask arrays
+ * against calling checkWin and the ThreatEvaluator on each ConnectFour game in turn.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+    private static final int POSITIONS = 4096;
+
+    private Workload batchCheckWins;
+    private Workload checkWinLoop;
+    private Workload batchEvaluate;
+    private Workload evaluateLoop;
+
+    @Setup
+    public void setUp() {
+        batchCheckWins = WorkloadFactory.load("batchCheckWins", POSITIONS);
+        checkWinLoop = WorkloadFactory.load("checkWinLoop", POSITIONS);
+        batchEvaluate = WorkloadFactory.load("batchEvaluate", POSITIONS);
+        evaluateLoop = WorkloadFactory.load("evaluateLoop", POSITIONS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int batchCheckWins() {
+        return batchCheckWins.run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int checkWinLoop() {
+        return checkWinLoop.run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int batchEvaluate() {
+        return batchEvaluate.run();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int evaluateLoop() {
+        return evaluateLoop.run();
+    }
+
+}//End of class BatchBenchmark
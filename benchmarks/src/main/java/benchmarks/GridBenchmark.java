@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * GridBenchmark
+ * Measures win detection and the computer's move on square boards of other sizes, over the same 64 boards a quarter
+ * full, to show how the multi-word GridBoard grows with the size of the board.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+    @Param({"7", "19", "64"})
+    public int size;
+
+    private Workload checkWinAt;
+    private Workload hasWon;
+    private Workload move;
+
+    @Setup
+    public void setUp() {
+        checkWinAt = WorkloadFactory.load("gridCheckWinAt", size);
+        hasWon = WorkloadFactory.load("gridHasWon", size);
+        move = WorkloadFactory.load("gridMove", size);
+    }
+
+    @Benchmark
+    public int checkWinAt() {
+        return checkWinAt.run();
+    }
+
+    @Benchmark
+    public int hasWon() {
+        return hasWon.run();
+    }
+
+    @Benchmark
+    public int move() {
+        return move.run();
+    }
+
+}//End of class GridBenchmark
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MoveBenchmark
+ * Measures making and unmaking moves: raw Bitboard play/unplay over 30 discs, ConnectFour addMove/undoMove over
+ * 14 discs with and without a MoveJournal, stepping a 24 move game back to the start and forward again, and findRow
+ * over every column of 64 mid-game boards.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+    private Workload playUnplay;
+    private Workload addUndo;
+    private Workload addUndoJournaled;
+    private Workload undoRedo;
+    private Workload findRow;
+
+    @Setup
+    public void setUp() {
+        playUnplay = WorkloadFactory.load("playUnplay", 0);
+        addUndo = WorkloadFactory.load("addUndo", 0);
+        addUndoJournaled = WorkloadFactory.load("addUndoJournaled", 0);
+        undoRedo = WorkloadFactory.load("undoRedo", 0);
+        findRow = WorkloadFactory.load("findRow", 0);
+    }
+
+    @Benchmark
+    public int playUnplay() {
+        return playUnplay.run();
+    }
+
+    @Benchmark
+    public int addUndo() {
+        return addUndo.run();
+    }
+
+    @Benchmark
+    public int addUndoJournaled() {
+        return addUndoJournaled.run();
+    }
+
+    @Benchmark
+    public int undoRedo() {
+        return undoRedo.run();
+    }
+
+    @Benchmark
+    public int findRow() {
+        return findRow.run();
+    }
+
+}//End of class MoveBenchmark
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PerftBenchmark
+ * Measures ConnectFour.perft from the empty board, a fixed workload of move generation and win checks.
+ * Divide the node count (Perft.KNOWN_COUNTS) by the time per operation for nodes per second.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+    @Param({"6", "8"})
+    private int depth;
+
+    private Workload perft;
+
+    @Setup
+    public void setUp() {
+        perft = WorkloadFactory.load("perft", depth);
+    }
+
+    @Benchmark
+    public int perft() {
+        return perft.run();
+    }
+
+}//End of class PerftBenchmark
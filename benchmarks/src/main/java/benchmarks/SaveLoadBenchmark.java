@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SaveLoadBenchmark
+ * Measures saving a mid-game to bytes and loading it back, in memory so that disk speed does not count, with the
+ * GameCodec format the game saves in, with the old Java serialization for comparison, and for an archive of games
+ * in the binary format and as text game records.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveLoadBenchmark {
+    private Workload codec;
+    private Workload codecArchive;
+    private Workload recordArchive;
+    private Workload serialize;
+
+    @Setup
+    public void setUp() {
+        codec = WorkloadFactory.load("codec", 0);
+        codecArchive = WorkloadFactory.load("codecArchive", 1000);
+        recordArchive = WorkloadFactory.load("recordArchive", 1000);
+        serialize = WorkloadFactory.load("serialize", 0);
+    }
+
+    @Benchmark
+    public int codec() {
+        return codec.run();
+    }
+
+    @Benchmark
+    public int codecArchive() {
+        return codecArchive.run();
+    }
+
+    @Benchmark
+    public int recordArchive() {
+        return recordArchive.run();
+    }
+
+    @Benchmark
+    public int serialize() {
+        return serialize.run();
+    }
+
+}//End of class SaveLoadBenchmark
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SearchBenchmark
+ * Measures a full computer move at several depths, each from an empty transposition table: the Engine search on its
+ * own, and generateComputerMove on a fresh copy of the game.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    @Param({"4", "8", "12"})
+    private int depth;
+
+    private Workload search;
+    private Workload computerMove;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        search = WorkloadFactory.load("search", depth);
+        computerMove = WorkloadFactory.load("computerMove", depth);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        search.reset();
+        computerMove.reset();
+    }
+
+    @Benchmark
+    public int search() {
+        return search.run();
+    }
+
+    @Benchmark
+    public int computerMove() {
+        return computerMove.run();
+    }
+
+}//End of class SearchBenchmark
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * WinBenchmark
+ * Measures win detection over the same 64 mid-game boards: the last-move check, the whole-board shift test and the
+ * String checkWin used by the user interfaces.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WinBenchmark {
+    private Workload checkWinAt;
+    private Workload hasWon;
+    private Workload checkWinString;
+
+    @Setup
+    public void setUp() {
+        checkWinAt = WorkloadFactory.load("checkWinAt", 0);
+        hasWon = WorkloadFactory.load("hasWon", 0);
+        checkWinString = WorkloadFactory.load("checkWinString", 0);
+    }
+
+    @Benchmark
+    public int checkWinAt() {
+        return checkWinAt.run();
+    }
+
+    @Benchmark
+    public int hasWon() {
+        return hasWon.run();
+    }
+
+    @Benchmark
+    public int checkWinString() {
+        return checkWinString.run();
+    }
+
+}//End of class WinBenchmark
@@ -0,0 +1,26 @@
+package benchmarks;
+
+/**
+ * Workload
+ * One piece of game work measured by a benchmark. The game classes live in the default package, which cannot be
+ * imported from a named package (and JMH benchmarks must be in one), so each workload is written next to the game in
+ * the default-package class GameWorkloads and reached through this interface.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+public interface Workload {
+
+    /**
+     * run
+     * This method does one unit of work
+     * @return a value depending on the work done, returned to JMH so the work cannot be optimised away
+     */
+    int run();
+
+    /**
+     * reset
+     * This method puts the workload back into its starting state, called before each measured run where it matters
+     */
+    default void reset() {
+    }
+
+}//End of interface Workload
@@ -0,0 +1,34 @@
+package benchmarks;
+
+/**
+ * WorkloadFactory
+ * Creates the workloads measured by the benchmarks, implemented by the default-package class GameWorkloads.
+ * @author MGC https://github.com/mgc-00/ 07/02/2025
+ */
+public interface WorkloadFactory {
+
+    /**
+     * create
+     * @param name - the name of the workload
+     * @param param - the workload's parameter, e.g. the search depth
+     * @return the workload
+     */
+    Workload create(String name, int param);
+
+    /**
+     * load
+     * This method finds the default-package GameWorkloads class and creates a workload from it
+     * @param name - the name of the workload
+     * @param param - the workload's parameter, e.g. the search depth
+     * @return the workload
+     */
+    static Workload load(String name, int param) {
+        try {
+            WorkloadFactory factory = (WorkloadFactory) Class.forName("GameWorkloads").getDeclaredConstructor().newInstance();
+            return factory.create(name, param);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("GameWorkloads is missing from the benchmark jar", e);
+        }
+    }
+
+}//End of interface WorkloadFactory